@@ -0,0 +1,147 @@
+package gui.bench;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import gui.exceptions.ValidationException;
+import gui.factory.AirportFactory;
+import gui.models.Airplane;
+import gui.models.Airport;
+import gui.models.SimulationModel;
+
+/**
+ * Measures SimulationModel throughput under mixed concurrent load:
+ * writer threads register flights from disjoint sets of departure airports,
+ * reader threads run index and spatial lookups, and one thread reads
+ * snapshots the way the simulation tick does.
+ *
+ * Each configuration runs twice: once against the model directly, and once
+ * with every call serialized on one global lock, which is how the model
+ * behaved before it was striped.
+ *
+ * Usage: ModelContentionBenchmark [seconds [writers [readers]]]
+ */
+public final class ModelContentionBenchmark {
+
+    private static final int AIRPORTS = 400;
+
+    private ModelContentionBenchmark() {}
+
+    public static void main(String[] args) throws Exception {
+        double seconds = (args.length > 0) ? Double.parseDouble(args[0]) : 2.0;
+        int writers = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int readers = (args.length > 2) ? Integer.parseInt(args[2]) : writers;
+
+        System.out.printf("%d writers, %d readers, %.1f s per run%n", writers, readers, seconds);
+        run("single lock", true, seconds, 1, readers);
+        run("model", false, seconds, 1, readers);
+        run("single lock", true, seconds, writers, readers);
+        run("model", false, seconds, writers, readers);
+    }
+
+    private static void run(String label, boolean globalLock, double seconds, int writers, int readers)
+            throws ValidationException, InterruptedException {
+        SimulationModel model = new SimulationModel();
+        Airport[] airports = new Airport[AIRPORTS];
+        for (int i = 0; i < AIRPORTS; i++) {
+            String code = "" + (char) ('A' + i / 676 % 26) + (char) ('A' + i / 26 % 26) + (char) ('A' + i % 26);
+            airports[i] = AirportFactory.create(-80 + 8 * (i % 20), -80 + 8 * (i / 20), 10, "Airport " + code, code);
+            model.addAirport(airports[i]);
+        }
+
+        Object lock = new Object();
+        AtomicBoolean stop = new AtomicBoolean();
+        LongAdder writes = new LongAdder();
+        LongAdder reads = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[writers + readers + 1];
+
+        for (int w = 0; w < writers; w++) {
+            final int self = w;
+            threads[w] = new Thread(() -> {
+                await(start);
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                // departure airports self, self + writers, ... belong to this writer only
+                int owned = (AIRPORTS - self + writers - 1) / writers;
+                for (int n = 0; !stop.get(); n++) {
+                    Airport from = airports[self + writers * (n % owned)];
+                    Airport to = airports[rnd.nextInt(AIRPORTS)];
+                    if (to == from) continue;
+                    int slot = n / owned;
+                    Airplane f = new Airplane(10, from, to, slot % 1440, 30 + slot / 1440);
+                    if (globalLock) {
+                        synchronized (lock) { model.addFlightIfAbsent(f); }
+                    } else {
+                        model.addFlightIfAbsent(f);
+                    }
+                    writes.increment();
+                }
+            }, "writer-" + w);
+        }
+        for (int r = 0; r < readers; r++) {
+            threads[writers + r] = new Thread(() -> {
+                await(start);
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                while (!stop.get()) {
+                    Airport a = airports[rnd.nextInt(AIRPORTS)];
+                    Airport b = airports[rnd.nextInt(AIRPORTS)];
+                    if (globalLock) {
+                        synchronized (lock) { query(model, a, b, rnd); }
+                    } else {
+                        query(model, a, b, rnd);
+                    }
+                    reads.increment();
+                }
+            }, "reader-" + r);
+        }
+        LongAdder ticks = new LongAdder();
+        threads[writers + readers] = new Thread(() -> {
+            await(start);
+            while (!stop.get()) {
+                int size;
+                if (globalLock) {
+                    synchronized (lock) { size = model.getSnapshot().getFlights().size(); }
+                } else {
+                    size = model.getSnapshot().getFlights().size();
+                }
+                if (size >= 0) ticks.increment();
+            }
+        }, "tick");
+
+        for (Thread t : threads) t.start();
+        long t0 = System.nanoTime();
+        start.countDown();
+        Thread.sleep((long) (seconds * 1000));
+        stop.set(true);
+        for (Thread t : threads) t.join();
+        double elapsed = (System.nanoTime() - t0) / 1e9;
+
+        System.out.printf("%-12s %2d writers: %,12.0f writes/s %,12.0f reads/s %,14.0f snapshot reads/s  (%,d flights)%n",
+                label, writers, writes.sum() / elapsed, reads.sum() / elapsed, ticks.sum() / elapsed,
+                model.getFlights().size());
+    }
+
+    private static void query(SimulationModel model, Airport a, Airport b, ThreadLocalRandom rnd) {
+        switch (rnd.nextInt(3)) {
+            case 0:
+                model.findFlight(a.getCodeId(), b.getCodeId(), rnd.nextInt(1440), 30);
+                break;
+            case 1:
+                model.getFlightsOnRoute(a.getCode(), b.getCode());
+                break;
+            default:
+                model.getAirportAt(a.getNsX(), a.getNsY());
+                break;
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package gui.bench;
+
+import java.lang.ref.Reference;
+import java.util.List;
+import java.util.Random;
+
+import gui.exceptions.ValidationException;
+import gui.factory.AirportFactory;
+import gui.models.Airplane;
+import gui.models.Airport;
+import gui.models.ScheduleStore;
+import gui.models.SimulationModel;
+
+/**
+ * Measures retained heap per scheduled flight for the two schedule
+ * representations: registered Airplane objects in a SimulationModel
+ * (including its indexes), which is what the simulator runs from, and the
+ * packed ScheduleStore used while importing. Also reports the extra cost of
+ * a flight while it is airborne.
+ *
+ * Usage: ScheduleMemoryBenchmark [flights [airports]]
+ * Run with a heap large enough for the flight count (e.g. -Xmx4g for 10M).
+ */
+public final class ScheduleMemoryBenchmark {
+
+    private static final long SEED = 42L;
+
+    private ScheduleMemoryBenchmark() {}
+
+    public static void main(String[] args) throws ValidationException {
+        int flights = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+        int airportCount = (args.length > 1) ? Integer.parseInt(args[1]) : 400;
+
+        SimulationModel model = new SimulationModel();
+        Airport[] airports = createAirports(model, airportCount);
+        System.out.printf("%,d flights over %d airports%n", flights, airportCount);
+
+        // packed records
+        long base = usedMemory();
+        ScheduleStore store = new ScheduleStore(flights);
+        Random rnd = new Random(SEED);
+        for (int i = 0; i < flights; i++) {
+            int from = rnd.nextInt(airportCount);
+            int to = (from + 1 + rnd.nextInt(airportCount - 1)) % airportCount;
+            store.add(airports[from].getCodeId(), airports[to].getCodeId(), rnd.nextInt(24 * 60), 30 + rnd.nextInt(600));
+        }
+        report("ScheduleStore", usedMemory() - base, flights);
+
+        // one Airplane per flight, registered and indexed by the model
+        base = usedMemory();
+        model.batch(b -> {
+            for (int i = 0; i < store.size(); i++) b.addFlight(store.materialize(i, model, 10));
+        });
+        report("SimulationModel", usedMemory() - base, flights);
+
+        // runtime state of airborne flights (1% of the schedule in the air)
+        List<Airplane> registered = model.getFlights();
+        int airborne = Math.max(1, flights / 100);
+        base = usedMemory();
+        for (int i = 0; i < airborne; i++) registered.get(i).activate(registered.get(i).getDepartureInMinutes());
+        report("airborne overhead", usedMemory() - base, airborne);
+
+        // the JIT may otherwise treat these as dead before the last measurement
+        Reference.reachabilityFence(store);
+        Reference.reachabilityFence(model);
+    }
+
+    private static Airport[] createAirports(SimulationModel model, int count) throws ValidationException {
+        Airport[] airports = new Airport[count];
+        int side = (int) Math.ceil(Math.sqrt(count));
+        for (int i = 0; i < count; i++) {
+            String code = "" + (char) ('A' + i / 676 % 26) + (char) ('A' + i / 26 % 26) + (char) ('A' + i % 26);
+            double x = -80 + 160.0 * (i % side) / side;
+            double y = -80 + 160.0 * (i / side) / side;
+            airports[i] = AirportFactory.create(x, y, 10, "Airport " + code, code);
+            model.addAirport(airports[i]);
+        }
+        return airports;
+    }
+
+    private static void report(String what, long bytes, int count) {
+        System.out.printf("%-18s %,14d bytes  %8.1f bytes/flight%n", what, bytes, bytes / (double) count);
+    }
+
+    private static long usedMemory() {
+        Runtime rt = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        // collect until the figure settles
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            used = Math.min(used, rt.totalMemory() - rt.freeMemory());
+        }
+        return used;
+    }
+}
@@ -0,0 +1,302 @@
+package gui.cli;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import gui.exceptions.FileFormatException;
+import gui.io.AirportCsvImport;
+import gui.io.CsvExport;
+import gui.io.FlightCsvImport;
+import gui.io.FlightTimesFile;
+import gui.io.ImportReport;
+import gui.io.ScheduleFile;
+import gui.models.Airplane;
+import gui.models.FlightTimes;
+import gui.models.SimulationModel;
+import gui.service.RegistrationService;
+import gui.simulation.SimulationEngine;
+
+/**
+ * Command-line entry point that runs one scenario headless: loads airports
+ * and flights, runs the simulation as fast as possible (or at a given warp)
+ * until every flight has landed or the horizon is reached, and prints
+ * summary statistics. With --output it also writes the summary and the
+ * scheduled and actual times of every flight (FlightTimes) to a directory.
+ *
+ * Uses no AWT classes, so it starts quickly and runs on servers without a
+ * display. Usage: see USAGE, or run with --help.
+ */
+public final class BatchRunner {
+
+    /** Simulated minutes per step of the window's simulation timer (200 ms at 10 min/s). */
+    private static final int DEFAULT_STEP = 2;
+
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: BatchRunner (--airports FILE --flights FILE | --schedule FILE) [options]",
+            "  --airports FILE   airports CSV (Name,Code,X,Y), optionally .gz",
+            "  --flights FILE    flights CSV (From,To,TakeOffTime,Duration), optionally .gz",
+            "  --schedule FILE   schedule file (" + ScheduleFile.EXTENSION + "), instead of the two CSV files",
+            "  --horizon MIN     stop after this many simulated minutes (default: when all flights landed)",
+            "  --step MIN        simulated minutes per step (default " + DEFAULT_STEP + ", as in the window)",
+            "  --warp N          simulated minutes per real second (default 0: as fast as possible)",
+            "  --seed N          seed of the departure jitter (default 1)",
+            "  --jitter MIN      delay each scheduled departure by 0..MIN random minutes (default 0)",
+            "  --output DIR      write summary.txt and flights.csv to DIR",
+            "  --binary          also write the flight times as columns (flights" + FlightTimesFile.EXTENSION + ")",
+            "  --gzip            gzip the flight times files (flights.csv.gz)");
+
+    private static final int MAX_SHOWN_ERRORS = 20;
+
+    private BatchRunner() {}
+
+    /** Run options, from the command line. */
+    private static final class Options {
+        Path airports, flights, schedule, output;
+        long horizon;
+        int step = DEFAULT_STEP;
+        double warp;
+        long seed = 1;
+        int jitter;
+        boolean gzip, binary;
+    }
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        Options o;
+        try {
+            o = parseArgs(args);
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+        if (o == null) {
+            System.out.println(USAGE);
+            return;
+        }
+        try {
+            run(o);
+        } catch (IOException ex) {
+            System.err.println("I/O error: " + ex.getMessage());
+            System.exit(1);
+        } catch (FileFormatException ex) {
+            System.err.println(ex.getUserMessage());
+            System.exit(1);
+        }
+    }
+
+    /** @return the options, or null if help was asked for */
+    private static Options parseArgs(String[] args) {
+        Options o = new Options();
+        for (int i = 0; i < args.length; i++) {
+            String a = args[i];
+            switch (a) {
+                case "--help": case "-h": return null;
+                case "--gzip": o.gzip = true; continue;
+                case "--binary": o.binary = true; continue;
+                case "--airports": case "--flights": case "--schedule": case "--output":
+                case "--horizon": case "--step": case "--seed": case "--jitter": case "--warp": break;
+                default: throw new IllegalArgumentException("Unknown option " + a);
+            }
+            if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value for " + a);
+            String v = args[++i];
+            switch (a) {
+                case "--airports": o.airports = Paths.get(v); break;
+                case "--flights": o.flights = Paths.get(v); break;
+                case "--schedule": o.schedule = Paths.get(v); break;
+                case "--output": o.output = Paths.get(v); break;
+                case "--horizon": o.horizon = number(a, v, 1, Integer.MAX_VALUE); break;
+                case "--step": o.step = (int) number(a, v, 1, 24 * 60); break;
+                case "--seed": o.seed = number(a, v, Long.MIN_VALUE, Long.MAX_VALUE); break;
+                case "--jitter": o.jitter = (int) number(a, v, 0, 24 * 60 - 1); break;
+                case "--warp":
+                    try {
+                        o.warp = Double.parseDouble(v);
+                    } catch (NumberFormatException ex) {
+                        throw new IllegalArgumentException("Invalid value for --warp: " + v);
+                    }
+                    if (!(o.warp >= 0)) throw new IllegalArgumentException("--warp must not be negative");
+                    break;
+                default: throw new AssertionError(a);
+            }
+        }
+        if (o.schedule == null && (o.airports == null || o.flights == null)) {
+            throw new IllegalArgumentException("Give --airports and --flights, or --schedule");
+        }
+        if (o.schedule != null && (o.airports != null || o.flights != null)) {
+            throw new IllegalArgumentException("--schedule cannot be combined with --airports or --flights");
+        }
+        if ((o.gzip || o.binary) && o.output == null) {
+            throw new IllegalArgumentException("--gzip and --binary apply to --output only");
+        }
+        if (o.schedule != null && o.jitter > 0) {
+            throw new IllegalArgumentException("--jitter applies to --flights only");
+        }
+        return o;
+    }
+
+    private static long number(String option, String value, long min, long max) {
+        long n;
+        try {
+            n = Long.parseLong(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid value for " + option + ": " + value);
+        }
+        if (n < min || n > max) {
+            throw new IllegalArgumentException(option + " must be between " + min + " and " + max);
+        }
+        return n;
+    }
+
+    private static void run(Options o) throws IOException, FileFormatException {
+        long started = System.nanoTime();
+        SimulationModel model = new SimulationModel();
+        RegistrationService service = new RegistrationService(model);
+        int rejected = load(o, service);
+        long loaded = System.nanoTime();
+
+        SimulationEngine engine = new SimulationEngine(model, 0L);
+        Airborne airborne = new Airborne();
+        engine.setFlightListener(airborne);
+        engine.reset();
+
+        long t = 0;
+        long steps = 0;
+        long wallStart = System.nanoTime();
+        while (!engine.isFinished()) {
+            if (o.horizon > 0 && t + o.step > o.horizon) break;
+            t += o.step;
+            engine.advance(t);
+            steps++;
+            if (o.warp > 0) pace(wallStart, t, o.warp);
+        }
+        long simulated = System.nanoTime();
+
+        FlightTimes times = engine.getFlightTimes();
+        String summary = summary(times, rejected, airborne.peak, t, steps,
+                (loaded - started) / 1_000_000, (simulated - loaded) / 1_000_000);
+        System.out.print(summary);
+        if (o.output != null) {
+            Files.createDirectories(o.output);
+            try (Writer w = Files.newBufferedWriter(o.output.resolve("summary.txt"), StandardCharsets.UTF_8)) {
+                w.write(summary);
+            }
+            String gz = o.gzip ? ".gz" : "";
+            CsvExport.writeFlightTimes(o.output.resolve("flights.csv" + gz), times);
+            if (o.binary) FlightTimesFile.write(o.output.resolve("flights" + FlightTimesFile.EXTENSION + gz), times);
+        }
+    }
+
+    /** Loads the scenario; returns the number of rejected rows. */
+    private static int load(Options o, RegistrationService service) throws IOException, FileFormatException {
+        if (o.schedule != null) {
+            List<String> messages = ScheduleFile.open(o.schedule).loadInto(service, 10, 10, MAX_SHOWN_ERRORS);
+            for (String m : messages) System.err.println("schedule: " + m);
+            return messages.size();
+        }
+        ImportReport airports = AirportCsvImport.parse(o.airports).registerAll(service, 10);
+        FlightCsvImport flightRows = FlightCsvImport.parse(o.flights);
+        if (o.jitter > 0) {
+            // drawn in file order, so a seed gives the same schedule on any machine
+            Random rnd = new Random(o.seed);
+            flightRows.shiftDepartures(d -> d + rnd.nextInt(o.jitter + 1));
+        }
+        ImportReport flights = flightRows.registerAll(service, 10);
+        printErrors("airports", airports, System.err);
+        printErrors("flights", flights, System.err);
+        return airports.getRejected() + flights.getRejected();
+    }
+
+    private static void printErrors(String what, ImportReport report, PrintStream out) {
+        for (String m : report.toMessages(MAX_SHOWN_ERRORS)) out.println(what + ": " + m);
+    }
+
+    // sleeps until the simulated time is due at the warp rate
+    private static void pace(long wallStart, long simMinutes, double warp) {
+        long dueNanos = wallStart + (long) (simMinutes / warp * 1e9);
+        long wait = dueNanos - System.nanoTime();
+        if (wait <= 0) return;
+        try {
+            Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Counts the flights in the air. */
+    private static final class Airborne implements SimulationEngine.FlightListener {
+        int now, peak;
+
+        @Override
+        public void departed(int flightId, Airplane flight, long simTimeInMinutes) {
+            peak = Math.max(peak, ++now);
+        }
+
+        @Override
+        public void landed(int flightId, Airplane flight, long simTimeInMinutes) {
+            now--;
+        }
+    }
+
+    private static String summary(FlightTimes times, int rejected, int peakAirborne, long simMinutes, long steps,
+            long loadMs, long runMs) {
+        int n = times.size();
+        int departedCount = 0, landedCount = 0, onTime = 0, maxDelay = 0;
+        long delaySum = 0;
+        for (int id = 0; id < n; id++) {
+            if (times.getDeparted(id) == FlightTimes.NOT_YET) continue;
+            departedCount++;
+            if (times.getArrived(id) != FlightTimes.NOT_YET) landedCount++;
+            int delay = times.getDepartureDelay(id);
+            if (delay <= 0) onTime++;
+            delaySum += Math.max(0, delay);
+            maxDelay = Math.max(maxDelay, delay);
+        }
+        // delay percentiles by counting, as delays are small non-negative ints
+        int[] count = new int[maxDelay + 1];
+        for (int id = 0; id < n; id++) {
+            if (times.getDeparted(id) != FlightTimes.NOT_YET) count[Math.max(0, times.getDepartureDelay(id))]++;
+        }
+        StringBuilder sb = new StringBuilder();
+        line(sb, "flights", n);
+        line(sb, "rejected_rows", rejected);
+        line(sb, "departed", departedCount);
+        line(sb, "landed", landedCount);
+        line(sb, "departed_on_time", onTime);
+        line(sb, "departed_delayed", departedCount - onTime);
+        line(sb, "mean_delay_min", departedCount == 0 ? "0" : String.format(Locale.ROOT, "%.3f", delaySum / (double) departedCount));
+        line(sb, "p50_delay_min", percentile(count, departedCount, 0.50));
+        line(sb, "p95_delay_min", percentile(count, departedCount, 0.95));
+        line(sb, "max_delay_min", maxDelay);
+        line(sb, "peak_airborne", peakAirborne);
+        line(sb, "simulated_min", simMinutes);
+        line(sb, "steps", steps);
+        line(sb, "load_ms", loadMs);
+        line(sb, "run_ms", runMs);
+        return sb.toString();
+    }
+
+    private static int percentile(int[] count, int total, double p) {
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(p * total);
+        long seen = 0;
+        for (int d = 0; d < count.length; d++) {
+            seen += count[d];
+            if (seen >= rank) return d;
+        }
+        return count.length - 1;
+    }
+
+    private static void line(StringBuilder sb, String key, Object value) {
+        sb.append(key).append('=').append(value).append(System.lineSeparator());
+    }
+}
@@ -0,0 +1,248 @@
+package gui.dialogs;
+
+import java.awt.*;
+import java.awt.event.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+
+import gui.exceptions.AppException;
+import gui.io.ImportReport;
+import gui.service.ProgressMonitor;
+import gui.timer.MyTimer;
+
+/**
+ * Modal dialog that runs an import on a background executor and shows its
+ * progress: current phase, a progress bar, throughput in rows per second and
+ * the rejected rows as they are found. Cancel stops the import; nothing of
+ * it is registered then.
+ *
+ * At most MAX_SHOWN_ERRORS rejected rows are listed, the rest only counted,
+ * so an import with millions of bad rows does not flood the UI.
+ */
+public class ImportProgressDialog extends Dialog {
+    private static final long serialVersionUID = 1L;
+
+    /** The import to run; called on the executor thread. */
+    public interface Task {
+        ImportReport run(ProgressMonitor monitor, ImportReport.Listener errors) throws Exception;
+    }
+
+    private static final int MAX_SHOWN_ERRORS = 1000;
+    private static final long REFRESH_MS = 200;
+
+    private final ProgressMonitor monitor = new ProgressMonitor();
+    private final Runnable onDone;
+
+    // rejected rows not yet shown (guarded by pending)
+    private final List<String> pending = new ArrayList<>();
+    private int errorCount; // guarded by pending
+
+    private Label statusLabel;
+    private ProgressBar bar;
+    private java.awt.List errorList;
+    private Label errorLabel;
+    private Button cancelBtn;
+    private Button closeBtn;
+    private MyTimer refreshTimer;
+
+    // throughput of the current phase
+    private String ratePhase;
+    private long rateStartNanos;
+
+    private boolean finished;
+
+    /**
+     * Starts the task on the executor and shows the dialog until it is closed.
+     *
+     * @param onDone run on the event thread when the task has ended, however it ended
+     */
+    public ImportProgressDialog(Frame owner, String title, ExecutorService executor, Task task, Runnable onDone) {
+        super(owner, title, true);
+        this.onDone = onDone;
+        initUi();
+
+        refreshTimer = new MyTimer(REFRESH_MS, 1.0, () -> EventQueue.invokeLater(this::refresh));
+        refreshTimer.setDaemon(true);
+        refreshTimer.start();
+
+        executor.execute(() -> {
+            ImportReport report = null;
+            Throwable failure = null;
+            try {
+                report = task.run(monitor, this::rejected);
+            } catch (Throwable t) {
+                failure = t;
+            }
+            ImportReport r = report;
+            Throwable f = failure;
+            EventQueue.invokeLater(() -> finish(r, f));
+        });
+
+        pack();
+        setLocationRelativeTo(owner);
+        setVisible(true);
+    }
+
+    private void initUi() {
+        setLayout(new BorderLayout(8, 8));
+
+        Panel top = new Panel(new GridLayout(0, 1, 4, 4));
+        statusLabel = new Label("Starting...");
+        bar = new ProgressBar();
+        top.add(statusLabel);
+        top.add(bar);
+        add(top, BorderLayout.NORTH);
+
+        errorList = new java.awt.List(15);
+        add(errorList, BorderLayout.CENTER);
+
+        Panel bottom = new Panel(new BorderLayout());
+        errorLabel = new Label("No rejected rows.");
+        bottom.add(errorLabel, BorderLayout.CENTER);
+        Panel buttons = new Panel(new FlowLayout(FlowLayout.RIGHT, 8, 6));
+        cancelBtn = new Button("Cancel");
+        closeBtn = new Button("Close");
+        closeBtn.setEnabled(false);
+        buttons.add(cancelBtn);
+        buttons.add(closeBtn);
+        bottom.add(buttons, BorderLayout.EAST);
+        add(bottom, BorderLayout.SOUTH);
+
+        cancelBtn.addActionListener(e -> onCancel());
+        closeBtn.addActionListener(e -> close());
+
+        // closing the window cancels a running import, closes a finished one
+        addWindowListener(new WindowAdapter() {
+            public void windowClosing(WindowEvent e) {
+                if (finished) close();
+                else onCancel();
+            }
+        });
+    }
+
+    /** ImportReport.Listener: called on the import thread. */
+    private void rejected(int line, String message) {
+        synchronized (pending) {
+            if (errorCount++ < MAX_SHOWN_ERRORS) pending.add("Line " + line + ": " + message);
+        }
+    }
+
+    private void onCancel() {
+        monitor.cancel();
+        cancelBtn.setEnabled(false);
+        statusLabel.setText("Cancelling...");
+    }
+
+    /** Timer refresh, on the event thread. */
+    private void refresh() {
+        if (finished) return;
+        String phase = monitor.getPhase();
+        long total = monitor.getTotal();
+        long done = monitor.getDone();
+        long now = System.nanoTime();
+        if (!phase.equals(ratePhase)) {
+            ratePhase = phase;
+            rateStartNanos = now;
+        }
+        if (!monitor.isCancelled() && !phase.isEmpty()) {
+            int percent = total > 0 ? (int) Math.min(100, done * 100 / total) : 0;
+            double seconds = (now - rateStartNanos) / 1e9;
+            long rate = seconds > 0 ? Math.round(monitor.getRows() / seconds) : 0;
+            statusLabel.setText(phase + "... " + percent + "%   " + rate + " rows/s");
+            bar.setFraction(total > 0 ? (double) done / total : 0);
+        }
+        showPendingErrors();
+    }
+
+    private void showPendingErrors() {
+        int count;
+        synchronized (pending) {
+            for (String m : pending) errorList.add(m);
+            pending.clear();
+            count = errorCount;
+        }
+        if (count == 0) return;
+        int hidden = count - errorList.getItemCount();
+        errorLabel.setText(count + " rejected" + (hidden > 0 ? " (... " + hidden + " more not listed)" : ""));
+    }
+
+    /** On the event thread, once the task has ended. */
+    private void finish(ImportReport report, Throwable failure) {
+        finished = true;
+        refreshTimer.stopTimer();
+        showPendingErrors();
+
+        if (failure instanceof CancellationException) {
+            statusLabel.setText("Cancelled. Nothing was imported.");
+        } else if (failure instanceof AppException) {
+            statusLabel.setText(((AppException) failure).getUserMessage());
+            statusLabel.setForeground(Color.RED);
+        } else if (failure instanceof java.io.IOException) {
+            statusLabel.setText("I/O error while reading file: " + failure.getMessage());
+            statusLabel.setForeground(Color.RED);
+        } else if (failure != null) {
+            failure.printStackTrace();
+            statusLabel.setText("Unexpected error. See log for details.");
+            statusLabel.setForeground(Color.RED);
+        } else if (report.getUpdated() + report.getRemoved() + report.getUnchanged() > 0) {
+            statusLabel.setText("Done: " + report.getRegistered() + " added, " + report.getUpdated() + " updated, "
+                    + report.getRemoved() + " removed, " + report.getUnchanged() + " unchanged, "
+                    + report.getRejected() + " rejected."
+                    // a line unreadable up to its time cannot keep its flight
+                    + (report.getRejected() > 0 && report.getRemoved() > 0
+                            ? " Removed flights may belong to rejected lines." : ""));
+            bar.setFraction(1);
+        } else {
+            statusLabel.setText("Done: " + report.getRegistered() + " registered, "
+                    + report.getRejected() + " rejected.");
+            bar.setFraction(1);
+        }
+        cancelBtn.setEnabled(false);
+        closeBtn.setEnabled(true);
+        onDone.run();
+
+        // nothing to look at: close right away
+        if (failure == null && !report.hasErrors()) close();
+    }
+
+    private void close() {
+        setVisible(false);
+        dispose();
+    }
+
+    /** Plain horizontal progress bar. */
+    private static final class ProgressBar extends Canvas {
+        private static final long serialVersionUID = 1L;
+
+        private double fraction;
+
+        ProgressBar() {
+            setPreferredSize(new Dimension(360, 16));
+        }
+
+        void setFraction(double fraction) {
+            if (fraction == this.fraction) return;
+            this.fraction = fraction;
+            repaint();
+        }
+
+        @Override
+        public void update(Graphics g) {
+            paint(g); // no clear: paint covers the whole canvas
+        }
+
+        @Override
+        public void paint(Graphics g) {
+            int w = getWidth(), h = getHeight();
+            int filled = (int) Math.round((w - 2) * fraction);
+            g.setColor(Color.WHITE);
+            g.fillRect(1, 1, w - 2, h - 2);
+            g.setColor(new Color(60, 120, 200));
+            g.fillRect(1, 1, filled, h - 2);
+            g.setColor(Color.GRAY);
+            g.drawRect(0, 0, w - 1, h - 1);
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package gui.dialogs.airport;
 
 import java.awt.*;
-import java.io.*;
+import java.io.File;
+import java.io.IOException;
 
 import gui.dialogs.BaseDialog;
-import gui.models.Airport;
+import gui.io.Compression;
+import gui.io.CsvExport;
 import gui.service.RegistrationService;
 import gui.simulation.FlightSimulation;
 
@@ -14,7 +16,7 @@ import gui.simulation.FlightSimulation;
  *
  * Allows the user to specify a file name. The dialog validates that the file
  * name is not empty and has a .csv extension, then writes airport data
- * (name, code, X, Y) to the specified file.
+ * (name, code, X, Y) to the specified file through CsvExport.
  *
  * Extends BaseDialog and interacts with RegistrationService to get airport data.
  */
@@ -37,28 +39,19 @@ public class ExportAirportsDialog extends BaseDialog {
             return;
         }
         
-        if (!path.toLowerCase().endsWith(".csv")) {
-            showError("File must have a .csv extension.");
+        if (!Compression.hasExtension(path, ".csv")) {
+            showError("File must have a .csv or .csv.gz extension.");
             return;
         }
 
-        File file = new File(path);
-        try (PrintWriter pw = new PrintWriter(new FileWriter(file))) {
-
-//            pw.println("Name,Code,X,Y");
-            for (Airport a : service.getAirportsSnapshot()) {
-                pw.printf("%s,%s,%.3f,%.3f%n",
-                        a.getName(),
-                        a.getCode(),
-                        a.getX(),
-                        a.getY());
-            }
-
-            setVisible(false);
-            dispose();
-
+        try {
+            CsvExport.writeAirports(new File(path).toPath(), service.getAirportsSnapshot());
         } catch (IOException ex) {
             showError("Error saving file: " + ex.getMessage());
+            return;
         }
+
+        setVisible(false);
+        dispose();
     }
 }
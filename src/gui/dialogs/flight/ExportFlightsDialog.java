@@ -1,12 +1,12 @@
 package gui.dialogs.flight;
 
 import java.awt.TextField;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.io.PrintWriter;
 import java.io.File;
+import java.io.IOException;
 
 import gui.dialogs.BaseDialog;
+import gui.io.Compression;
+import gui.io.CsvExport;
 import gui.service.RegistrationService;
 import gui.simulation.FlightSimulation;
 
@@ -17,6 +17,8 @@ import gui.simulation.FlightSimulation;
  * all flights currently registered in the system to the file in the format:
  * From,To,TakeOffTime,Duration
  * 
+ * Rows are streamed by CsvExport without per-row allocation.
+ * 
  * Extends BaseDialog and uses RegistrationService to access the flights.
  */
 public class ExportFlightsDialog extends BaseDialog {
@@ -37,31 +39,19 @@ public class ExportFlightsDialog extends BaseDialog {
             return;
         }
         
-        if (!path.toLowerCase().endsWith(".csv")) {
-            showError("File must have a .csv extension.");
+        if (!Compression.hasExtension(path, ".csv")) {
+            showError("File must have a .csv or .csv.gz extension.");
             return;
         }
 
-        File file = new File(path);
-        try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
-
-//            writer.println("From,To,TakeOffTime,Duration");
-            for (var flight : service.getFlightsSnapshot()) {
-                String fromCode = flight.getFrom().getCode();
-                String toCode = flight.getTo().getCode();
-                String takeOff = String.format("%02d:%02d",
-                        flight.getHours(),
-                        flight.getMinutes());
-                int duration = flight.getDuration();
-
-                writer.printf("%s,%s,%s,%d%n", fromCode, toCode, takeOff, duration);
-            }
-
-            setVisible(false);
-            dispose();
-
+        try {
+            CsvExport.writeFlights(new File(path).toPath(), service.getFlightsSnapshot());
         } catch (IOException e) {
             showError("Error saving file: " + e.getMessage());
+            return;
         }
+
+        setVisible(false);
+        dispose();
     }
 }
@@ -1,31 +1,34 @@
 package gui.dialogs.flight;
 
-import java.awt.Frame;
+import java.awt.Checkbox;
+import java.awt.Label;
 import java.awt.TextField;
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
-import java.util.ArrayList;
-import java.util.List;
 
 import gui.dialogs.BaseDialog;
-import gui.dialogs.ResultDialog;
 import gui.exceptions.ValidationException;
-import gui.models.Airplane;
+import gui.io.Compression;
+import gui.io.FlightCsvImport;
 import gui.service.RegistrationService;
 import gui.simulation.FlightSimulation;
 
 /**
  * Modal dialog for importing flights from a CSV file.
  * 
- * Allows the user to specify a CSV file name, validates it, reads its contents,
- * and attempts to register each flight in the system using RegistrationService.
+ * Allows the user to specify a CSV file name, validates it, parses it in parallel
+ * (FlightCsvImport) and registers the flights using RegistrationService, all in
+ * one model batch.
  * 
  * The expected CSV format is:
  * From,To,TakeOffTime,Duration
  * 
- * Lines with invalid data are collected and shown in a ResultDialog, while valid
- * flights are added to the simulation.
+ * With "sync" checked the file is taken as the whole schedule: only new,
+ * changed and missing flights are added, updated or removed, instead of
+ * rejecting every flight that is already registered.
+ * 
+ * The import runs in the background behind an ImportProgressDialog; lines with
+ * invalid data are listed there as they are found, while valid flights are
+ * added to the simulation.
  * 
  * Extends BaseDialog and interacts with FlightSimulation for registering flights.
  */
@@ -33,10 +36,14 @@ import gui.simulation.FlightSimulation;
 public class ImportFlightsDialog extends BaseDialog {
 
     private TextField fileName;
+    private Checkbox sync;
 
     public ImportFlightsDialog(FlightSimulation owner, RegistrationService service) {
         super(owner, "Import Flights", service);
         fileName = addTextField("CSV file name: ", 20);
+        sync = new Checkbox("sync: replace the schedule with the file", false);
+        form.add(new Label("Mode:"));
+        form.add(sync);
         finalizeAndShow();
     }
 
@@ -48,8 +55,8 @@ public class ImportFlightsDialog extends BaseDialog {
             return;
         }
         
-        if (!path.toLowerCase().endsWith(".csv")) {
-            showError("Only .csv files are supported.");
+        if (!Compression.hasExtension(path, ".csv")) {
+            showError("Only .csv and .csv.gz files are supported.");
             return;
         }
 
@@ -59,55 +66,16 @@ public class ImportFlightsDialog extends BaseDialog {
             return;
         }
 
-        List<String> errors = new ArrayList<>();
-        int imported = 0;
-        try (BufferedReader br = new BufferedReader(new FileReader(f))) {
-            String line;
-            int lineNum = 0;
-            while ((line = br.readLine()) != null) {
-                lineNum++;
-                if (line.trim().isEmpty()) continue;
-
-                String[] parts = line.split(",");
-                if (parts.length != 4) {
-                    errors.add("Line " + lineNum + ": malformed (expected exactly 4 columns)");
-                    continue;
-                }
-
-                String fromCode = parts[0].trim();
-                String toCode = parts[1].trim();
-                String takeOffTime = parts[2].trim();
-                String durations = parts[3].trim();
-
-                int duration;
-                try {
-                    duration = Integer.parseInt(durations);
-                } catch (NumberFormatException nfe) {
-                    errors.add("Line " + lineNum + ": invalid duration '" + durations + "'");
-                    continue;
-                }
-
-                try {
-                    Airplane a = service.createAndRegisterFlight(10, fromCode, toCode, takeOffTime, durations);
-                    owner.registerFlight(a);
-                    imported++;
-                } catch (ValidationException ve) {
-                    errors.add("Line " + lineNum + ": " + ve.getMessage());
-                } catch (Exception ex) {
-                    errors.add("Line " + lineNum + ": unexpected error (" + ex.getClass().getSimpleName() + ")");
-                }
-            }
-        } catch (java.io.IOException ioe) {
-            showError("I/O error while reading file: " + ioe.getMessage());
-            return;
-        }
-
-        if (!errors.isEmpty()) {
-            new ResultDialog((Frame)getOwner(), "Import results", errors);
-            return;
-        }
-
+        // parsed in parallel, then registered as a single model batch, in the background
+        boolean replace = sync.getState();
         setVisible(false);
         dispose();
+        if (replace) {
+            owner.runImport("Syncing flights", (monitor, errors) ->
+                    FlightCsvImport.parse(f.toPath(), monitor).syncAll(service, 10, monitor, errors));
+        } else {
+            owner.runImport("Importing flights", (monitor, errors) ->
+                    FlightCsvImport.parse(f.toPath(), monitor).registerAll(service, 10, monitor, errors));
+        }
     }
 }
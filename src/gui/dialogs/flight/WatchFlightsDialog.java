@@ -0,0 +1,63 @@
+package gui.dialogs.flight;
+
+import java.awt.Checkbox;
+import java.awt.Label;
+import java.awt.TextField;
+import java.io.File;
+import java.io.IOException;
+
+import gui.dialogs.BaseDialog;
+import gui.service.RegistrationService;
+import gui.simulation.FlightSimulation;
+
+/**
+ * Modal dialog for following a flights CSV file that is appended to during
+ * the day (see FlightFeedWatcher). New rows are registered as they arrive,
+ * also while the simulation runs. Rejected rows and read failures show in
+ * the window's feed status and under Flights > Show feed problems.
+ */
+public class WatchFlightsDialog extends BaseDialog {
+    private static final long serialVersionUID = 1L;
+
+    private TextField fileName;
+    private Checkbox onlyNewRows;
+
+    public WatchFlightsDialog(FlightSimulation owner, RegistrationService service) {
+        super(owner, "Watch Flights Feed", service);
+        fileName = addTextField("CSV file name: ", 20);
+        onlyNewRows = new Checkbox("only rows appended from now on", true);
+        form.add(new Label("First run:"));
+        form.add(onlyNewRows);
+        finalizeAndShow();
+    }
+
+    @Override
+    protected void onSave() {
+        String path = fileName.getText().trim();
+        if (path.isEmpty()) {
+            showError("File name cannot be empty.");
+            return;
+        }
+
+        if (!path.toLowerCase().endsWith(".csv")) {
+            showError("Only .csv files are supported.");
+            return;
+        }
+
+        File f = new File(path);
+        if (f.getAbsoluteFile().getParentFile() == null || !f.getAbsoluteFile().getParentFile().isDirectory()) {
+            showError("Directory not found: " + path);
+            return;
+        }
+
+        try {
+            owner.watchFlightFeed(f.toPath(), onlyNewRows.getState());
+        } catch (IOException ioe) {
+            showError("Cannot watch file: " + ioe.getMessage());
+            return;
+        }
+
+        setVisible(false);
+        dispose();
+    }
+}
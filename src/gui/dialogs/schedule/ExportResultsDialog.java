@@ -0,0 +1,64 @@
+package gui.dialogs.schedule;
+
+import java.awt.TextField;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import gui.dialogs.BaseDialog;
+import gui.io.Compression;
+import gui.io.CsvExport;
+import gui.io.FlightTimesFile;
+import gui.models.FlightTimes;
+import gui.service.RegistrationService;
+import gui.simulation.FlightSimulation;
+
+/**
+ * Modal dialog for exporting the scheduled and actual times of every flight
+ * of the current (or last stopped) run: as CSV, or as a columnar binary
+ * results file (see FlightTimesFile), chosen by the file extension.
+ */
+public class ExportResultsDialog extends BaseDialog {
+    private static final long serialVersionUID = 1L;
+
+    private TextField fileName;
+
+    public ExportResultsDialog(FlightSimulation owner, RegistrationService service) {
+        super(owner, "Export Run Results", service);
+        fileName = addTextField("Results file name:", 20);
+        finalizeAndShow();
+    }
+
+    @Override
+    protected void onSave() {
+        String path = fileName.getText().trim();
+        if (path.isEmpty()) {
+            showError("File name cannot be empty.");
+            return;
+        }
+
+        boolean csv = Compression.hasExtension(path, ".csv");
+        if (!csv && !Compression.hasExtension(path, FlightTimesFile.EXTENSION)) {
+            showError("File must have a .csv or " + FlightTimesFile.EXTENSION + " extension (optionally .gz).");
+            return;
+        }
+
+        FlightTimes times = owner.getRunResults();
+        if (times == null) {
+            showError("No simulation has been run yet.");
+            return;
+        }
+
+        Path file = new File(path).toPath();
+        try {
+            if (csv) CsvExport.writeFlightTimes(file, times);
+            else FlightTimesFile.write(file, times);
+        } catch (IOException e) {
+            showError("Error saving file: " + e.getMessage());
+            return;
+        }
+
+        setVisible(false);
+        dispose();
+    }
+}
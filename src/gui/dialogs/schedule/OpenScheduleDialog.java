@@ -0,0 +1,70 @@
+package gui.dialogs.schedule;
+
+import java.awt.Frame;
+import java.awt.TextField;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import gui.dialogs.BaseDialog;
+import gui.dialogs.ResultDialog;
+import gui.exceptions.FileFormatException;
+import gui.io.ScheduleFile;
+import gui.service.RegistrationService;
+import gui.simulation.FlightSimulation;
+
+/**
+ * Modal dialog for opening a binary schedule file (see ScheduleFile).
+ *
+ * The file replaces all registered airports and flights in one model batch.
+ * A file that fails the header or checksum test is rejected before the model
+ * is touched; rows that fail validation are listed in a ResultDialog.
+ */
+public class OpenScheduleDialog extends BaseDialog {
+    private static final long serialVersionUID = 1L;
+
+    private static final int MAX_SHOWN_ERRORS = 1000;
+
+    private TextField fileName;
+
+    public OpenScheduleDialog(FlightSimulation owner, RegistrationService service) {
+        super(owner, "Open Schedule", service);
+        fileName = addTextField("Schedule file name:", 20);
+        finalizeAndShow();
+    }
+
+    @Override
+    protected void onSave() {
+        String path = fileName.getText().trim();
+        if (path.isEmpty()) {
+            showError("File name cannot be empty.");
+            return;
+        }
+
+        File f = new File(path);
+        if (!f.exists() || !f.isFile()) {
+            showError("File not found: " + path);
+            return;
+        }
+
+        List<String> errors;
+        try {
+            errors = ScheduleFile.open(f.toPath()).loadInto(service, 10, 10, MAX_SHOWN_ERRORS);
+        } catch (FileFormatException ffe) {
+            showError(ffe.getUserMessage());
+            return;
+        } catch (IOException ioe) {
+            showError("I/O error while reading file: " + ioe.getMessage());
+            return;
+        }
+        owner.registrationsImported();
+
+        if (!errors.isEmpty()) {
+            new ResultDialog((Frame)getOwner(), "Open results", errors);
+            return;
+        }
+
+        setVisible(false);
+        dispose();
+    }
+}
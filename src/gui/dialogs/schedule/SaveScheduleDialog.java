@@ -0,0 +1,53 @@
+package gui.dialogs.schedule;
+
+import java.awt.TextField;
+import java.io.File;
+import java.io.IOException;
+
+import gui.dialogs.BaseDialog;
+import gui.io.Compression;
+import gui.io.ScheduleFile;
+import gui.models.SimulationModel;
+import gui.service.RegistrationService;
+import gui.simulation.FlightSimulation;
+
+/**
+ * Modal dialog for saving all airports and flights to a binary schedule file
+ * (see ScheduleFile). Airports and flights are taken from one model snapshot.
+ */
+public class SaveScheduleDialog extends BaseDialog {
+    private static final long serialVersionUID = 1L;
+
+    private TextField fileName;
+
+    public SaveScheduleDialog(FlightSimulation owner, RegistrationService service) {
+        super(owner, "Save Schedule", service);
+        fileName = addTextField("Schedule file name:", 20);
+        finalizeAndShow();
+    }
+
+    @Override
+    protected void onSave() {
+        String path = fileName.getText().trim();
+        if (path.isEmpty()) {
+            showError("File name cannot be empty.");
+            return;
+        }
+
+        if (!Compression.hasExtension(path, ScheduleFile.EXTENSION)) {
+            showError("File must have a " + ScheduleFile.EXTENSION + " or " + ScheduleFile.EXTENSION + Compression.GZIP_SUFFIX + " extension.");
+            return;
+        }
+
+        SimulationModel.Snapshot snapshot = service.getSnapshot();
+        try {
+            ScheduleFile.write(new File(path).toPath(), snapshot.getAirports(), snapshot.getFlights());
+        } catch (IOException e) {
+            showError("Error saving file: " + e.getMessage());
+            return;
+        }
+
+        setVisible(false);
+        dispose();
+    }
+}
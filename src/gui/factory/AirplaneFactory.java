@@ -2,6 +2,7 @@ package gui.factory;
 
 import gui.models.Airplane;
 import gui.models.Airport;
+import gui.models.ScheduleStore;
 import gui.exceptions.ValidationException;
 
 /**
@@ -9,6 +10,9 @@ import gui.exceptions.ValidationException;
  */
 public final class AirplaneFactory {
 
+    /** Longest accepted duration; flights are indexed by a packed key with 23 bits for it. */
+    public static final int MAX_DURATION = ScheduleStore.MAX_DURATION;
+
     private AirplaneFactory() {}
 
     /**
@@ -23,10 +27,7 @@ public final class AirplaneFactory {
      * @throws ValidationException if any validation fails
      */
     public static Airplane create(int width, Airport from, Airport to, String takeOffTime, int duration) throws ValidationException {
-        if (from == null) throw new ValidationException("Departure airport does not exist.");
-        if (to == null) throw new ValidationException("Destination airport does not exist.");
-        if (from.getCode().equals(to.getCode())) throw new ValidationException("Departure and destination airports must be different.");
-        if (duration <= 0) throw new ValidationException("Flight duration must be a positive number of minutes.");
+        checkFlight(from, to, duration);
         if (takeOffTime == null || takeOffTime.trim().isEmpty()) throw new ValidationException("Take-off time is required.");
 
         String t = takeOffTime.trim();
@@ -45,9 +46,31 @@ public final class AirplaneFactory {
             throw new ValidationException("Take-off time must be between 00:00 and 23:59.");
         }
 
-        String normalizedTime = String.format("%02d:%02d", hh, mm);
+        return create(width, from, to, hh * 60 + mm, duration);
+    }
+
+    /**
+     * Creates an Airplane from an already parsed departure time, e.g. by a
+     * bulk importer.
+     *
+     * @param departure departure in minutes since 00:00 (0..1439)
+     * @throws ValidationException if any validation fails
+     */
+    public static Airplane create(int width, Airport from, Airport to, int departure, int duration) throws ValidationException {
+        checkFlight(from, to, duration);
+        if (departure < 0 || departure >= 24 * 60) throw new ValidationException("Take-off time must be between 00:00 and 23:59.");
+
         int finalWidth = width > 0 ? width : 6;
 
-        return new Airplane(finalWidth, from, to, normalizedTime, duration);
+        return new Airplane(finalWidth, from, to, departure, duration);
+    }
+
+    // checks that come before the take-off time, in the order they are reported
+    private static void checkFlight(Airport from, Airport to, int duration) throws ValidationException {
+        if (from == null) throw new ValidationException("Departure airport does not exist.");
+        if (to == null) throw new ValidationException("Destination airport does not exist.");
+        if (from.getCodeId() == to.getCodeId()) throw new ValidationException("Departure and destination airports must be different.");
+        if (duration <= 0) throw new ValidationException("Flight duration must be a positive number of minutes.");
+        if (duration > MAX_DURATION) throw new ValidationException("Flight duration must not exceed " + MAX_DURATION + " minutes.");
     }
 }
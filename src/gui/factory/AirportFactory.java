@@ -1,6 +1,7 @@
 package gui.factory;
 
 import gui.models.Airport;
+import gui.models.AirportCodes;
 import gui.exceptions.ValidationException;
 
 /**
@@ -30,7 +31,7 @@ public final class AirportFactory {
         }
 
         String normalizedCode = code.trim().toUpperCase();
-        if (!normalizedCode.matches("[A-Z]{3}")) {
+        if (normalizedCode.length() != 3 || AirportCodes.encode(normalizedCode) == AirportCodes.INVALID) {
             throw new ValidationException("Airport code must be exactly 3 uppercase letters (A-Z).");
         }
 
@@ -31,6 +31,7 @@ public class IdleManager {
 
     private volatile boolean stopped = false;
     private boolean paused = false;
+    private int work = 0; // background tasks running (guarded by this)
 
     public IdleManager(Frame owner) {
         this(owner, 60, 5);
@@ -81,6 +82,7 @@ public class IdleManager {
 
         int newIdle;
         synchronized (this) {
+            if (work > 0) return;
             idleSeconds++;
             newIdle = idleSeconds;
         }
@@ -166,4 +168,17 @@ public class IdleManager {
     public void resume() {
         paused = false;
     }
+
+    /** Holds the countdown while a background task (e.g., an import) runs. */
+    public synchronized void beginWork() {
+        work++;
+    }
+
+    /** Ends a beginWork() hold; the idle time counts from now. */
+    public void endWork() {
+        synchronized (this) {
+            work--;
+        }
+        resetIdle();
+    }
 }
@@ -0,0 +1,142 @@
+package gui.io;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import gui.service.AirportRow;
+import gui.service.ProgressMonitor;
+import gui.service.RegistrationService;
+
+/**
+ * Bulk import of airports from a CSV file (Name,Code,X,Y).
+ *
+ * Rows are parsed in parallel over a memory-mapped file (see
+ * MappedCsvReader) and registered in bulk, in file order, as a single model
+ * batch (see RegistrationService#registerAirports).
+ */
+public final class AirportCsvImport {
+
+    private final List<MappedCsvReader.Chunk<AirportChunk>> chunks;
+
+    private AirportCsvImport(List<MappedCsvReader.Chunk<AirportChunk>> chunks) {
+        this.chunks = chunks;
+    }
+
+    /**
+     * Parses the file. Rows with syntax errors are kept for the report.
+     *
+     * @throws IOException if the file cannot be read
+     */
+    public static AirportCsvImport parse(Path file) throws IOException {
+        return new AirportCsvImport(MappedCsvReader.read(file, AirportChunk::new));
+    }
+
+    /**
+     * Parses the file, reporting progress to the monitor.
+     *
+     * @throws IOException if the file cannot be read
+     * @throws java.util.concurrent.CancellationException if the monitor was cancelled
+     */
+    public static AirportCsvImport parse(Path file, ProgressMonitor monitor) throws IOException {
+        return new AirportCsvImport(MappedCsvReader.read(file, 0, -1, 1, AirportChunk::new,
+                Runtime.getRuntime().availableProcessors(), monitor));
+    }
+
+    /**
+     * Registers the parsed rows, in file order, as one model transaction.
+     *
+     * @param width drawing width of the airports
+     * @return registered count and rejected rows, from parsing and registration
+     */
+    public ImportReport registerAll(RegistrationService service, int width) {
+        return registerAll(service, width, new ProgressMonitor(), null);
+    }
+
+    /**
+     * Like registerAll(service, width), reporting progress to the monitor and
+     * each rejected row to the listener (if any) as soon as it is known.
+     *
+     * @throws java.util.concurrent.CancellationException if the monitor was
+     *         cancelled; no airport of the file is registered then
+     */
+    public ImportReport registerAll(RegistrationService service, int width, ProgressMonitor monitor,
+            ImportReport.Listener listener) {
+        ImportReport report = new ImportReport(listener);
+        List<AirportRow> rows = new ArrayList<>();
+        int[] lineOfRow = new int[16];
+        for (MappedCsvReader.Chunk<AirportChunk> c : chunks) {
+            for (Row row : c.getParser().rows) {
+                int line = c.lineNumber(row.line);
+                if (row.error != null) {
+                    report.reject(line, row.error);
+                    continue;
+                }
+                if (rows.size() == lineOfRow.length) lineOfRow = Arrays.copyOf(lineOfRow, rows.size() * 2);
+                lineOfRow[rows.size()] = line;
+                rows.add(new AirportRow(row.name, row.code, row.x, row.y));
+            }
+        }
+        report.addAll(service.registerAirports(rows, width, monitor), lineOfRow);
+        return report;
+    }
+
+    /** A parsed row, or a rejected one when error is set. */
+    private static final class Row {
+        final int line;
+        final String name, code, error;
+        final double x, y;
+
+        Row(int line, String name, String code, double x, double y, String error) {
+            this.line = line;
+            this.name = name;
+            this.code = code;
+            this.x = x;
+            this.y = y;
+            this.error = error;
+        }
+    }
+
+    private static final class AirportChunk implements MappedCsvReader.ChunkParser {
+        final List<Row> rows = new ArrayList<>();
+
+        @Override
+        public void row(CsvRow row, int line) {
+            if (row.fieldCount() != 4) {
+                rows.add(new Row(line, null, null, 0, 0, "malformed (expected 4 columns)"));
+                return;
+            }
+            String name = row.text(0);
+            String code = row.text(1).toUpperCase();
+            // same messages as RegistrationService
+            if (row.text(2).isEmpty()) {
+                rows.add(new Row(line, null, null, 0, 0, "X coordinate is required."));
+                return;
+            }
+            if (row.text(3).isEmpty()) {
+                rows.add(new Row(line, null, null, 0, 0, "Y coordinate is required."));
+                return;
+            }
+            if (code.isEmpty()) {
+                rows.add(new Row(line, null, null, 0, 0, "Airport code is required."));
+                return;
+            }
+            double x, y;
+            try {
+                x = Double.parseDouble(row.text(2));
+            } catch (NumberFormatException nfe) {
+                rows.add(new Row(line, null, null, 0, 0, "X coordinate is not a valid number."));
+                return;
+            }
+            try {
+                y = Double.parseDouble(row.text(3));
+            } catch (NumberFormatException nfe) {
+                rows.add(new Row(line, null, null, 0, 0, "Y coordinate is not a valid number."));
+                return;
+            }
+            rows.add(new Row(line, name, code, x, y, null));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package gui.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+import gui.exceptions.FileFormatException;
+
+/**
+ * Loads the little-endian column files written by ColumnWriter
+ * (ScheduleFile, FlightTimesFile): mapped, or inflated into memory when
+ * gzipped, and checksummed as their headers expect.
+ */
+final class ColumnReader {
+
+    private ColumnReader() {}
+
+    /**
+     * Maps a file, or inflates it into memory if it is gzipped, as a
+     * little-endian buffer.
+     *
+     * @param notThisFormat message for a file too large to be one
+     * @throws FileFormatException if the file is over 2 GB
+     */
+    static ByteBuffer load(Path path, String notThisFormat) throws IOException, FileFormatException {
+        ByteBuffer data;
+        if (Compression.isGzipped(path)) {
+            try (InputStream in = Compression.openInput(path)) {
+                data = ByteBuffer.wrap(in.readNBytes(Integer.MAX_VALUE - 8));
+                if (in.read() >= 0) throw new FileFormatException(notThisFormat);
+            }
+        } else {
+            try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+                long size = ch.size();
+                if (size > Integer.MAX_VALUE) throw new FileFormatException(notThisFormat);
+                data = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+        }
+        return data.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /** CRC32 of the buffer after the header, as stored in the headers. */
+    static int checksum(ByteBuffer data, int headerBytes) {
+        CRC32 crc = new CRC32();
+        crc.update(data.duplicate().position(headerBytes));
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,104 @@
+package gui.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Buffered sequential writer for the little-endian column files
+ * (ScheduleFile, FlightTimesFile) that keeps a CRC32 of everything it
+ * writes. With no channel it only computes the CRC32. write() puts a
+ * header that carries the checksum of the columns after it; ColumnReader
+ * loads and checks the files.
+ */
+final class ColumnWriter {
+
+    /** Writes the columns of a file; returns ColumnWriter#finish(). */
+    interface Columns {
+        int writeTo(ColumnWriter out) throws IOException;
+    }
+
+    /** Builds the header for the CRC32 of the columns. */
+    interface Header {
+        ByteBuffer forChecksum(int crc);
+    }
+
+    private final WritableByteChannel ch;
+    private final ByteBuffer buf = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+    private final CRC32 crc = new CRC32();
+    private long position;
+
+    ColumnWriter(WritableByteChannel ch, long start) {
+        this.ch = ch;
+        this.position = start;
+    }
+
+    /**
+     * Writes a file of headerBytes of header then the columns; gzipped if
+     * the name ends in ".gz" (see Compression).
+     */
+    static void write(Path path, int headerBytes, Header header, Columns columns) throws IOException {
+        if (Compression.isGzipName(path)) {
+            // a stream cannot go back to fill in the header: checksum the columns first
+            int crc = columns.writeTo(new ColumnWriter(null, headerBytes));
+            try (WritableByteChannel ch = Compression.openOutput(path)) {
+                ByteBuffer h = header.forChecksum(crc);
+                while (h.hasRemaining()) ch.write(h);
+                columns.writeTo(new ColumnWriter(ch, headerBytes));
+            }
+            return;
+        }
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ch.position(headerBytes);
+            ByteBuffer h = header.forChecksum(columns.writeTo(new ColumnWriter(ch, headerBytes)));
+            while (h.hasRemaining()) ch.write(h, h.position());
+        }
+    }
+
+    void putDouble(double v) throws IOException { room(8); buf.putDouble(v); }
+    void putInt(int v) throws IOException { room(4); buf.putInt(v); }
+    void putShort(int v) throws IOException { room(2); buf.putShort((short) v); }
+
+    void putBytes(byte[] b) throws IOException {
+        for (int i = 0; i < b.length; ) {
+            room(1);
+            int n = Math.min(b.length - i, buf.remaining());
+            buf.put(b, i, n);
+            i += n;
+        }
+    }
+
+    /** Zero-fills up to the given file offset. */
+    void pad(long offset) throws IOException {
+        while (position + buf.position() < offset) {
+            room(1);
+            buf.put((byte) 0);
+        }
+    }
+
+    private void room(int bytes) throws IOException {
+        if (buf.remaining() < bytes) flush();
+    }
+
+    private void flush() throws IOException {
+        buf.flip();
+        crc.update(buf.duplicate());
+        position += buf.remaining();
+        if (ch != null) {
+            while (buf.hasRemaining()) ch.write(buf);
+        }
+        buf.clear();
+    }
+
+    /** Flushes; returns the CRC32 of everything written. */
+    int finish() throws IOException {
+        flush();
+        return (int) crc.getValue();
+    }
+}
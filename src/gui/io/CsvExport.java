@@ -0,0 +1,63 @@
+package gui.io;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import gui.models.Airplane;
+import gui.models.Airport;
+import gui.models.FlightTimes;
+
+/**
+ * CSV export of airports and flights in the formats read by the importers.
+ * Rows stream from the given lists (e.g. an immutable model snapshot) through
+ * a CsvWriter, so memory use does not grow with the number of rows.
+ */
+public final class CsvExport {
+
+    private CsvExport() {}
+
+    /** Writes Name,Code,X,Y rows. */
+    public static void writeAirports(Path path, List<Airport> airports) throws IOException {
+        try (CsvWriter out = new CsvWriter(path)) {
+            for (Airport a : airports) {
+                out.text(a.getName()).comma().code(a.getCodeId()).comma()
+                   .fixed3(a.getNsX()).comma().fixed3(a.getNsY()).endRow();
+            }
+        }
+    }
+
+    /** Writes From,To,TakeOffTime,Duration rows. */
+    public static void writeFlights(Path path, List<Airplane> flights) throws IOException {
+        try (CsvWriter out = new CsvWriter(path)) {
+            for (Airplane f : flights) {
+                out.code(f.getFrom().getCodeId()).comma().code(f.getTo().getCodeId()).comma()
+                   .time(f.getDepartureInMinutes()).comma().number(f.getDuration()).endRow();
+            }
+        }
+    }
+
+    /**
+     * Writes the results of a run as From,To,TakeOffTime,Duration,Departed,
+     * Arrived,Delay rows. Departed and Arrived are minutes since the start of
+     * the run, Delay minutes late leaving (flights fly their scheduled
+     * duration, so they arrive exactly as late); the fields of a departure or
+     * arrival that has not happened are empty.
+     */
+    public static void writeFlightTimes(Path path, FlightTimes times) throws IOException {
+        try (CsvWriter out = new CsvWriter(path)) {
+            out.text("From,To,TakeOffTime,Duration,Departed,Arrived,Delay").endRow();
+            for (int id = 0; id < times.size(); id++) {
+                out.code(times.getFromId(id)).comma().code(times.getToId(id)).comma()
+                   .time(times.getScheduled(id)).comma().number(times.getDuration(id)).comma();
+                optional(out, times.getDeparted(id)).comma();
+                optional(out, times.getArrived(id)).comma();
+                optional(out, times.getDepartureDelay(id)).endRow();
+            }
+        }
+    }
+
+    private static CsvWriter optional(CsvWriter out, int minutes) throws IOException {
+        return minutes == FlightTimes.NOT_YET ? out : out.number(minutes);
+    }
+}
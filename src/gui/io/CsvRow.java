@@ -0,0 +1,111 @@
+package gui.io;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import gui.models.AirportCodes;
+
+/**
+ * Zero-copy view of one comma-separated line inside a mapped buffer.
+ * Fields are kept as byte offsets (surrounding whitespace trimmed); numbers
+ * and airport codes are decoded straight from the bytes, and a String is only
+ * built when {@link #text(int)} is called. One instance is reused for every
+ * line of a chunk, so it is only valid inside the callback that receives it.
+ */
+public final class CsvRow {
+
+    /** Returned by the int accessors for anything that is not an int. */
+    public static final int NOT_A_NUMBER = Integer.MIN_VALUE;
+
+    private static final int MAX_FIELDS = 16;
+
+    private ByteBuffer buf;
+    private final int[] starts = new int[MAX_FIELDS];
+    private final int[] ends = new int[MAX_FIELDS];
+    private final byte[] scratch = new byte[8];
+    private int fields;
+
+    /** Splits buf[from, to) (one line, no terminator) into fields. */
+    void reset(ByteBuffer buf, int from, int to) {
+        this.buf = buf;
+        fields = 0;
+        int start = from;
+        for (int i = from; i <= to; i++) {
+            if (i == to || buf.get(i) == ',') {
+                if (fields < MAX_FIELDS) {
+                    int s = start, e = i;
+                    while (s < e && buf.get(s) <= ' ') s++;
+                    while (e > s && buf.get(e - 1) <= ' ') e--;
+                    starts[fields] = s;
+                    ends[fields] = e;
+                }
+                fields++;
+                start = i + 1;
+            }
+        }
+    }
+
+    /** Number of fields on the line (may exceed the number stored). */
+    public int fieldCount() { return fields; }
+
+    /** Trimmed field as a String (UTF-8). */
+    public String text(int field) {
+        int s = starts[field];
+        byte[] b = new byte[ends[field] - s];
+        buf.get(s, b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    /** Encoded airport code of the field, or AirportCodes.INVALID. */
+    public int codeId(int field) {
+        int s = starts[field];
+        int n = ends[field] - s;
+        if (n != 3) return AirportCodes.INVALID;
+        buf.get(s, scratch, 0, n);
+        return AirportCodes.encode(scratch, 0, n);
+    }
+
+    /** The field as a decimal int, or NOT_A_NUMBER. */
+    public int intValue(int field) {
+        return parseInt(starts[field], ends[field]);
+    }
+
+    /**
+     * Minutes since 00:00 of an "H:MM" / "HH:MM" field; -1 if it is not two
+     * colon-separated numbers, -2 if it is not a time of day.
+     */
+    public int minutesOfDay(int field) {
+        int s = starts[field], e = ends[field];
+        int colon = -1;
+        for (int i = s; i < e; i++) {
+            if (buf.get(i) == ':') {
+                if (colon >= 0) return -1;
+                colon = i;
+            }
+        }
+        if (colon < 0) return -1;
+        int hh = parseInt(s, colon);
+        int mm = parseInt(colon + 1, e);
+        if (hh == NOT_A_NUMBER || mm == NOT_A_NUMBER) return -1;
+        if (hh < 0 || hh > 23 || mm < 0 || mm > 59) return -2;
+        return hh * 60 + mm;
+    }
+
+    private int parseInt(int s, int e) {
+        if (s >= e) return NOT_A_NUMBER;
+        boolean negative = false;
+        byte c = buf.get(s);
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            if (++s == e) return NOT_A_NUMBER;
+        }
+        long v = 0;
+        for (int i = s; i < e; i++) {
+            int d = buf.get(i) - '0';
+            if (d < 0 || d > 9) return NOT_A_NUMBER;
+            v = v * 10 + d;
+            if (v > Integer.MAX_VALUE) return NOT_A_NUMBER;
+        }
+        return (int) (negative ? -v : v);
+    }
+}
@@ -0,0 +1,156 @@
+package gui.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+
+import gui.models.AirportCodes;
+
+/**
+ * Streaming CSV writer over a file channel, gzipped when the file name ends
+ * in ".gz" (see Compression). Rows are formatted by hand into one reusable
+ * direct buffer (ints, HH:MM times, 3-decimal fixed point, UTF-8 text), so
+ * writing a row allocates nothing. Output matches what
+ * PrintWriter.printf produced with "%d", "%02d:%02d" and "%.3f", except that
+ * the decimal separator is always '.', whatever the default locale.
+ */
+public final class CsvWriter implements Closeable {
+
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+
+    private final WritableByteChannel ch;
+    private final ByteBuffer buf = ByteBuffer.allocateDirect(1 << 16);
+    private final byte[] digits = new byte[20];
+
+    /** Creates or truncates the file. */
+    public CsvWriter(Path path) throws IOException {
+        ch = Compression.openOutput(path);
+    }
+
+    public CsvWriter comma() throws IOException {
+        return ascii(',');
+    }
+
+    public CsvWriter endRow() throws IOException {
+        room(LINE_SEPARATOR.length);
+        buf.put(LINE_SEPARATOR);
+        return this;
+    }
+
+    public CsvWriter ascii(char c) throws IOException {
+        room(1);
+        buf.put((byte) c);
+        return this;
+    }
+
+    /** Three-letter airport code of an encoded id. */
+    public CsvWriter code(int codeId) throws IOException {
+        room(3);
+        buf.put((byte) AirportCodes.letterAt(codeId, 0));
+        buf.put((byte) AirportCodes.letterAt(codeId, 1));
+        buf.put((byte) AirportCodes.letterAt(codeId, 2));
+        return this;
+    }
+
+    /** Text as UTF-8. */
+    public CsvWriter text(String s) throws IOException {
+        for (int i = 0, n = s.length(); i < n; i++) {
+            char c = s.charAt(i);
+            room(4);
+            if (c < 0x80) {
+                buf.put((byte) c);
+            } else if (c < 0x800) {
+                buf.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                buf.put((byte) (0xF0 | cp >> 18)).put((byte) (0x80 | cp >> 12 & 0x3F))
+                   .put((byte) (0x80 | cp >> 6 & 0x3F)).put((byte) (0x80 | cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                buf.put((byte) '?');  // unpaired surrogate, as String.getBytes does
+            } else {
+                buf.put((byte) (0xE0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3F)).put((byte) (0x80 | c & 0x3F));
+            }
+        }
+        return this;
+    }
+
+    public CsvWriter number(long v) throws IOException {
+        room(20);
+        if (v < 0) {
+            buf.put((byte) '-');
+            if (v == Long.MIN_VALUE) {
+                // cannot be negated; the digits of -(MIN_VALUE / 10) then the last one
+                digitsOf(-(v / 10), 0);
+                buf.put((byte) '8');
+                return this;
+            }
+            v = -v;
+        }
+        digitsOf(v, 0);
+        return this;
+    }
+
+    /** Minutes since 00:00 as HH:MM. */
+    public CsvWriter time(int minutes) throws IOException {
+        room(5);
+        int h = minutes / 60, m = minutes % 60;
+        buf.put((byte) ('0' + h / 10)).put((byte) ('0' + h % 10)).put((byte) ':')
+           .put((byte) ('0' + m / 10)).put((byte) ('0' + m % 10));
+        return this;
+    }
+
+    /** The value rounded half-up to 3 decimals, exactly like "%.3f". */
+    public CsvWriter fixed3(double v) throws IOException {
+        if (!Double.isFinite(v) || Math.abs(v) >= 1e15) {
+            // never produced by the model; not worth a fast path
+            return text(String.format(java.util.Locale.ROOT, "%.3f", v));
+        }
+        double scaled = Math.abs(v) * 1000.0;
+        long units = Math.round(scaled);
+        if (Math.abs(Math.abs(scaled - units) - 0.5) < 1e-6) {
+            // close to a tie: Formatter rounds the shortest decimal form of the
+            // double (Double.toString), not its exact binary value
+            units = new BigDecimal(Double.toString(Math.abs(v))).setScale(3, RoundingMode.HALF_UP).unscaledValue().longValue();
+        }
+        room(21);
+        if (Double.doubleToRawLongBits(v) < 0) buf.put((byte) '-');
+        digitsOf(units / 1000, 0);
+        buf.put((byte) '.');
+        digitsOf(units % 1000, 3);
+        return this;
+    }
+
+    // decimal digits of a non-negative value, zero-padded to at least minDigits
+    private void digitsOf(long v, int minDigits) {
+        int n = 0;
+        do {
+            digits[n++] = (byte) ('0' + v % 10);
+            v /= 10;
+        } while (v != 0);
+        while (n < minDigits) digits[n++] = '0';
+        while (n > 0) buf.put(digits[--n]);
+    }
+
+    private void room(int bytes) throws IOException {
+        if (buf.remaining() < bytes) flush();
+    }
+
+    private void flush() throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) ch.write(buf);
+        buf.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            ch.close();
+        }
+    }
+}
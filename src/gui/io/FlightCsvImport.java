@@ -0,0 +1,245 @@
+package gui.io;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+import gui.models.AirportCodes;
+import gui.models.ScheduleStore;
+import gui.service.ProgressMonitor;
+import gui.service.RegistrationService;
+
+/**
+ * Bulk import of flights from a CSV file (From,To,TakeOffTime,Duration).
+ *
+ * Parsing runs in parallel over a memory-mapped file (see MappedCsvReader);
+ * each accepted row becomes one packed ScheduleStore record, so parsing
+ * allocates nothing per row. The rows are then registered in bulk (see
+ * RegistrationService#registerFlights), which publishes one change for the
+ * whole file, or synced against the registered flights (see
+ * RegistrationService#syncFlights) to apply a revised schedule.
+ */
+public final class FlightCsvImport {
+
+    private final List<MappedCsvReader.Chunk<FlightChunk>> chunks;
+
+    private FlightCsvImport(List<MappedCsvReader.Chunk<FlightChunk>> chunks) {
+        this.chunks = chunks;
+    }
+
+    /**
+     * Parses the file. Rows with syntax errors are kept for the report.
+     *
+     * @throws IOException if the file cannot be read
+     */
+    public static FlightCsvImport parse(Path file) throws IOException {
+        return new FlightCsvImport(MappedCsvReader.read(file, FlightChunk::new));
+    }
+
+    /**
+     * Parses the file, reporting progress to the monitor.
+     *
+     * @throws IOException if the file cannot be read
+     * @throws java.util.concurrent.CancellationException if the monitor was cancelled
+     */
+    public static FlightCsvImport parse(Path file, ProgressMonitor monitor) throws IOException {
+        return new FlightCsvImport(MappedCsvReader.read(file, 0, -1, 1, FlightChunk::new,
+                Runtime.getRuntime().availableProcessors(), monitor));
+    }
+
+    /**
+     * Parses the lines in bytes [from, to) of the file, e.g. rows appended
+     * since an earlier import. from must be the start of a line.
+     *
+     * @param firstLine file line number of the line at from, for the report
+     * @throws IOException if the file cannot be read
+     */
+    public static FlightCsvImport parse(Path file, long from, long to, int firstLine) throws IOException {
+        return new FlightCsvImport(MappedCsvReader.read(file, from, to, firstLine, FlightChunk::new,
+                Runtime.getRuntime().availableProcessors(), new ProgressMonitor()));
+    }
+
+    /** Number of lines read, blank and rejected ones included. */
+    public int getLineCount() {
+        int n = 0;
+        for (MappedCsvReader.Chunk<FlightChunk> c : chunks) n += c.getLineCount();
+        return n;
+    }
+
+    /** Number of rows that parsed. */
+    public int getParsedRows() {
+        int n = 0;
+        for (MappedCsvReader.Chunk<FlightChunk> c : chunks) n += c.getParser().records.size();
+        return n;
+    }
+
+    /** Number of rows rejected by parsing. */
+    public int getRejectedRows() {
+        int n = 0;
+        for (MappedCsvReader.Chunk<FlightChunk> c : chunks) n += c.getParser().errorCount;
+        return n;
+    }
+
+    /**
+     * Replaces the departure minute of every parsed row, in file order, with
+     * the given function of it, clamped to 00:00..23:59; e.g. to perturb a
+     * schedule before registering it.
+     */
+    public void shiftDepartures(IntUnaryOperator shift) {
+        for (MappedCsvReader.Chunk<FlightChunk> c : chunks) {
+            ScheduleStore records = c.getParser().records;
+            for (int i = 0; i < records.size(); i++) {
+                int d = shift.applyAsInt(records.getDeparture(i));
+                records.setDeparture(i, Math.max(0, Math.min(24 * 60 - 1, d)));
+            }
+        }
+    }
+
+    /**
+     * Registers the parsed rows with RegistrationService#registerFlights:
+     * validated in parallel, then registered in file order as one model
+     * transaction.
+     *
+     * @param width drawing width of the airplanes
+     * @return registered count and rejected rows, from parsing and registration
+     */
+    public ImportReport registerAll(RegistrationService service, int width) {
+        return registerAll(service, width, new ProgressMonitor(), null);
+    }
+
+    /**
+     * Like registerAll(service, width), reporting progress to the monitor and
+     * each rejected row to the listener (if any) as soon as it is known:
+     * syntax errors first, then the rows rejected by the registration.
+     *
+     * @throws java.util.concurrent.CancellationException if the monitor was
+     *         cancelled; no flight of the file is registered then
+     */
+    public ImportReport registerAll(RegistrationService service, int width, ProgressMonitor monitor,
+            ImportReport.Listener listener) {
+        ImportReport report = new ImportReport(listener);
+        ScheduleStore rows = new ScheduleStore(getParsedRows());
+        int[] lineOfRow = collectRows(report, rows);
+        report.addAll(service.registerFlights(rows, width, monitor), lineOfRow);
+        return report;
+    }
+
+    /**
+     * Makes the registered flights equal to the parsed rows with
+     * RegistrationService#syncFlights: only new, changed and missing flights
+     * are touched, in one model transaction. A line rejected for its
+     * duration still names a route and departure, and keeps the flight
+     * registered for them; flights whose line could not be read that far
+     * count as missing and are removed.
+     *
+     * @throws java.util.concurrent.CancellationException if the monitor was
+     *         cancelled; the registered flights are unchanged then
+     */
+    public ImportReport syncAll(RegistrationService service, int width, ProgressMonitor monitor,
+            ImportReport.Listener listener) {
+        ImportReport report = new ImportReport(listener);
+        ScheduleStore rows = new ScheduleStore(getParsedRows());
+        int[] lineOfRow = collectRows(report, rows);
+        ScheduleStore keep = new ScheduleStore();
+        for (MappedCsvReader.Chunk<FlightChunk> c : chunks) {
+            ScheduleStore named = c.getParser().named;
+            for (int i = 0; i < named.size(); i++) {
+                long r = named.getRecord(i);
+                keep.add(ScheduleStore.fromIdOf(r), ScheduleStore.toIdOf(r), ScheduleStore.departureOf(r), ScheduleStore.durationOf(r));
+            }
+        }
+        report.addAll(service.syncFlights(rows, keep, width, monitor), lineOfRow);
+        return report;
+    }
+
+    /** Reports the syntax errors and gathers the parsed rows in file order; returns their line numbers. */
+    private int[] collectRows(ImportReport report, ScheduleStore rows) {
+        int[] lineOfRow = new int[getParsedRows()];
+        for (MappedCsvReader.Chunk<FlightChunk> c : chunks) {
+            FlightChunk p = c.getParser();
+            for (int i = 0; i < p.errorCount; i++) report.reject(c.lineNumber(p.errorLines[i]), p.errors[i]);
+            for (int i = 0; i < p.records.size(); i++) {
+                long r = p.records.getRecord(i);
+                int row = rows.add(ScheduleStore.fromIdOf(r), ScheduleStore.toIdOf(r), ScheduleStore.departureOf(r), ScheduleStore.durationOf(r));
+                lineOfRow[row] = c.lineNumber(p.recordLines[i]);
+            }
+        }
+        return lineOfRow;
+    }
+
+    /** Parser for one chunk: packed records plus rejected lines. */
+    private static final class FlightChunk implements MappedCsvReader.ChunkParser {
+        final ScheduleStore records = new ScheduleStore(1024);
+        // route and departure of the lines rejected for their duration alone, duration MAX_DURATION
+        final ScheduleStore named = new ScheduleStore(1);
+        int[] recordLines = new int[1024];
+        int[] errorLines = new int[16];
+        String[] errors = new String[16];
+        int errorCount;
+
+        @Override
+        public void row(CsvRow row, int line) {
+            if (row.fieldCount() != 4) {
+                reject(line, "malformed (expected exactly 4 columns)");
+                return;
+            }
+            int duration = row.intValue(3);
+            if (duration == CsvRow.NOT_A_NUMBER) {
+                rejectDuration(row, line, "invalid duration '" + row.text(3) + "'");
+                return;
+            }
+            int from = row.codeId(0);
+            if (from == AirportCodes.INVALID) {
+                reject(line, "Departure airport (" + row.text(0).toUpperCase() + ") does not exist.");
+                return;
+            }
+            int to = row.codeId(1);
+            if (to == AirportCodes.INVALID) {
+                reject(line, "Destination airport (" + row.text(1).toUpperCase() + ") does not exist.");
+                return;
+            }
+            // same order and messages as AirplaneFactory
+            if (from == to) {
+                reject(line, "Departure and destination airports must be different.");
+                return;
+            }
+            if (duration <= 0) {
+                rejectDuration(row, line, "Flight duration must be a positive number of minutes.");
+                return;
+            }
+            if (duration > ScheduleStore.MAX_DURATION) {
+                rejectDuration(row, line, "Flight duration must not exceed " + ScheduleStore.MAX_DURATION + " minutes.");
+                return;
+            }
+            int departure = row.minutesOfDay(2);
+            if (departure < 0) {
+                reject(line, departure == -1 ? "Time must be in HH:MM format." : "Take-off time must be between 00:00 and 23:59.");
+                return;
+            }
+
+            int i = records.add(from, to, departure, duration);
+            if (i == recordLines.length) recordLines = Arrays.copyOf(recordLines, i * 2);
+            recordLines[i] = line;
+        }
+
+        /** Rejects a line whose duration is bad, noting its route and departure if they are good. */
+        private void rejectDuration(CsvRow row, int line, String message) {
+            reject(line, message);
+            int from = row.codeId(0), to = row.codeId(1), departure = row.minutesOfDay(2);
+            if (from != AirportCodes.INVALID && to != AirportCodes.INVALID && from != to && departure >= 0) {
+                named.add(from, to, departure, ScheduleStore.MAX_DURATION);
+            }
+        }
+
+        private void reject(int line, String message) {
+            if (errorCount == errors.length) {
+                errorLines = Arrays.copyOf(errorLines, errorCount * 2);
+                errors = Arrays.copyOf(errors, errorCount * 2);
+            }
+            errorLines[errorCount] = line;
+            errors[errorCount++] = message;
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package gui.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+import gui.service.RegistrationService;
+
+/**
+ * Follows a flights CSV file that another process appends to, and registers
+ * each batch of new complete lines while the simulation keeps running.
+ *
+ * The byte offset (and line number) up to which the file was read is kept in
+ * a side file, "&lt;file&gt;.offset", so a restart continues where the last
+ * run stopped instead of reporting every earlier row as a duplicate. A line
+ * without its terminating newline is left for the next read. A file that
+ * shrinks below the offset is taken to be a new feed and read from the start.
+ *
+ * Changes are noticed through a WatchService on the file's directory, with a
+ * periodic check as a fallback for file systems that do not report events.
+ *
+ * A read that fails is reported to the listener once, then retried with a
+ * doubling delay while the same failure repeats; after MAX_SAME_FAILURES in a
+ * row the watcher gives up. A gzipped file cannot be followed (it is not
+ * appended to line by line), so the watcher gives up on it at once.
+ */
+public final class FlightFeedWatcher implements Closeable {
+
+    /** Receives the outcome of each registered batch and read failures, on the watcher thread. */
+    public interface Listener {
+        void rowsAppended(ImportReport report);
+
+        /** The file could not be read; stopped is true if the watcher gave up. */
+        void failed(String message, boolean stopped);
+    }
+
+    private static final long POLL_SECONDS = 5;
+
+    /** Identical failures in a row after which the watcher gives up. */
+    private static final int MAX_SAME_FAILURES = 5;
+
+    private final Path file;
+    private final Path stateFile;
+    private final RegistrationService service;
+    private final int width;
+    private final Listener listener;
+    private final WatchService watcher;
+    private final Thread thread;
+
+    // read position; only touched by the watcher thread after start()
+    private long offset;
+    private int nextLine = 1;
+
+    // failures; only touched by the watcher thread
+    private String lastFailure;
+    private int sameFailures;
+    private long retryAtNanos;
+    private boolean stopped;
+
+    /**
+     * @param width        drawing width of the registered airplanes
+     * @param skipExisting without a saved offset, start at the current end of
+     *                     the file instead of its beginning
+     * @throws IOException if the directory cannot be watched or the state read
+     */
+    public FlightFeedWatcher(Path file, RegistrationService service, int width, boolean skipExisting, Listener listener)
+            throws IOException {
+        this.file = file.toAbsolutePath();
+        this.stateFile = this.file.resolveSibling(this.file.getFileName() + ".offset");
+        this.service = service;
+        this.width = width;
+        this.listener = listener;
+
+        if (!loadState() && skipExisting && Files.exists(this.file)) {
+            try (FileChannel ch = FileChannel.open(this.file, StandardOpenOption.READ)) {
+                offset = lastLineEnd(ch, 0, ch.size());
+                nextLine = 1 + countLines(ch, offset);
+            }
+            saveState();
+        }
+
+        watcher = this.file.getFileSystem().newWatchService();
+        try {
+            this.file.getParent().register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException | RuntimeException ex) {
+            watcher.close();
+            throw ex;
+        }
+        thread = new Thread(this::run, "flight-feed");
+        thread.setDaemon(true);
+    }
+
+    /** Reads what was appended so far, then keeps following the file. */
+    public void start() {
+        thread.start();
+    }
+
+    /** Byte offset up to which the file has been registered. */
+    public synchronized long getOffset() {
+        return offset;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public void close() throws IOException {
+        thread.interrupt();
+        watcher.close();
+    }
+
+    private void run() {
+        try {
+            catchUp();
+            while (!stopped && !Thread.currentThread().isInterrupted()) {
+                WatchKey key = watcher.poll(POLL_SECONDS, TimeUnit.SECONDS);
+                if (key != null) {
+                    boolean ours = false;
+                    for (WatchEvent<?> e : key.pollEvents()) {
+                        ours |= e.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(e.context());
+                    }
+                    key.reset();
+                    if (!ours) continue;
+                }
+                if (System.nanoTime() - retryAtNanos < 0) continue; // backing off
+                catchUp();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ex) {
+            // closed
+        }
+        if (stopped) {
+            try {
+                watcher.close();
+            } catch (IOException ex) {
+                // gave up already; nothing left to do
+            }
+        }
+    }
+
+    /** Registers the complete lines appended since the last read. */
+    private void catchUp() {
+        try {
+            if (Compression.isGzipped(file)) {
+                stopped = true;
+                if (listener != null) listener.failed("Compressed files cannot be followed; append to a plain CSV file.", true);
+                return;
+            }
+            long end;
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = ch.size();
+                if (size < offset) {
+                    // truncated or replaced: a new feed
+                    setPosition(0, 1);
+                }
+                end = lastLineEnd(ch, offset, size);
+            }
+            succeeded();
+            if (end <= offset) return;
+
+            FlightCsvImport rows = FlightCsvImport.parse(file, offset, end, nextLine);
+            ImportReport report = rows.registerAll(service, width);
+            setPosition(end, nextLine + rows.getLineCount());
+            saveState();
+            if (listener != null) listener.rowsAppended(report);
+        } catch (NoSuchFileException ex) {
+            // not created yet, or being rotated
+        } catch (IOException ex) {
+            failed("Cannot read " + file + ": " + ex.getMessage());
+        }
+    }
+
+    private void succeeded() {
+        lastFailure = null;
+        sameFailures = 0;
+        retryAtNanos = 0;
+    }
+
+    /** Reports a new failure once; backs off while it repeats, and gives up after MAX_SAME_FAILURES. */
+    private void failed(String message) {
+        if (message.equals(lastFailure)) {
+            sameFailures++;
+        } else {
+            lastFailure = message;
+            sameFailures = 1;
+        }
+        if (sameFailures >= MAX_SAME_FAILURES) {
+            stopped = true;
+            if (listener != null) listener.failed(message + " (gave up after " + sameFailures + " attempts)", true);
+            return;
+        }
+        if (sameFailures == 1 && listener != null) listener.failed(message, false);
+        retryAtNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(POLL_SECONDS << sameFailures);
+    }
+
+    private synchronized void setPosition(long offset, int nextLine) {
+        this.offset = offset;
+        this.nextLine = nextLine;
+    }
+
+    // ---------------------------------------------------------------- state file
+
+    private boolean loadState() {
+        try {
+            String[] parts = new String(Files.readAllBytes(stateFile), StandardCharsets.US_ASCII).trim().split("\\s+");
+            long o = Long.parseLong(parts[0]);
+            int line = (parts.length > 1) ? Integer.parseInt(parts[1]) : 1;
+            if (o < 0 || line < 1) return false;
+            setPosition(o, line);
+            return true;
+        } catch (IOException | NumberFormatException ex) {
+            return false;
+        }
+    }
+
+    /** Writes "offset nextLine" through a temporary file, so a crash never leaves half a state. */
+    private void saveState() throws IOException {
+        Path tmp = stateFile.resolveSibling(stateFile.getFileName() + ".tmp");
+        Files.write(tmp, (offset + " " + nextLine + "\n").getBytes(StandardCharsets.US_ASCII));
+        try {
+            Files.move(tmp, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (java.nio.file.AtomicMoveNotSupportedException ex) {
+            Files.move(tmp, stateFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // ---------------------------------------------------------------- scanning
+
+    /** Position just after the last '\n' in [from, to), or from if there is none. */
+    private static long lastLineEnd(FileChannel ch, long from, long to) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(8192);
+        long pos = to;
+        while (pos > from) {
+            int n = (int) Math.min(probe.capacity(), pos - from);
+            probe.clear().limit(n);
+            long at = pos - n;
+            while (probe.hasRemaining()) {
+                if (ch.read(probe, at + probe.position()) < 0) return from;
+            }
+            for (int i = n - 1; i >= 0; i--) {
+                if (probe.get(i) == '\n') return at + i + 1;
+            }
+            pos = at;
+        }
+        return from;
+    }
+
+    private static int countLines(FileChannel ch, long to) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(1 << 16);
+        int lines = 0;
+        for (long pos = 0; pos < to; ) {
+            probe.clear().limit((int) Math.min(probe.capacity(), to - pos));
+            int n = ch.read(probe, pos);
+            if (n <= 0) break;
+            for (int i = 0; i < n; i++) if (probe.get(i) == '\n') lines++;
+            pos += n;
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,128 @@
+package gui.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+
+import gui.exceptions.FileFormatException;
+import gui.models.FlightTimes;
+
+/**
+ * Columnar binary file of the results of a run (see FlightTimes), for
+ * analysis tools: each column can be read in one sequential sweep, mapped
+ * or with e.g. numpy.fromfile. Written gzipped if the name ends in ".gz".
+ *
+ * Layout (little-endian). Each column starts on an 8-byte boundary.
+ * <pre>
+ *  header  magic "FTIM", version, flight count F, CRC32 of everything
+ *          after the header (4 ints)
+ *  int     duration[F]                minutes
+ *  int     departed[F], arrived[F]    minutes since the start of the run, -1 = not yet
+ *  short   from[F], to[F]             encoded airport codes (AirportCodes)
+ *  short   scheduled[F]               scheduled departure, minutes since 00:00
+ * </pre>
+ */
+public final class FlightTimesFile {
+
+    /** File name extension of results files. */
+    public static final String EXTENSION = ".ftim";
+
+    private static final int MAGIC = 'F' | 'T' << 8 | 'I' << 16 | 'M' << 24;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+
+    private final ByteBuffer buf;
+    private final int flights;
+    private final int durationAt, departedAt, arrivedAt, fromAt, toAt, scheduledAt, end;
+
+    private FlightTimesFile(ByteBuffer buf, int flights) {
+        this.buf = buf;
+        this.flights = flights;
+        long at = HEADER_BYTES;
+        durationAt = (int) at;
+        departedAt = align(at += 4L * flights);
+        arrivedAt = align(at = departedAt + 4L * flights);
+        fromAt = align(at = arrivedAt + 4L * flights);
+        toAt = align(at = fromAt + 2L * flights);
+        scheduledAt = align(at = toAt + 2L * flights);
+        end = align(scheduledAt + 2L * flights);
+    }
+
+    private static int align(long at) {
+        long aligned = (at + 7) & ~7L;
+        if (aligned > Integer.MAX_VALUE) throw new IllegalArgumentException("too many flights");
+        return (int) aligned;
+    }
+
+    /**
+     * Writes the times of a run.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, FlightTimes times) throws IOException {
+        int n = times.size();
+        FlightTimesFile layout;
+        try {
+            layout = new FlightTimesFile(null, n);
+        } catch (IllegalArgumentException ex) {
+            throw new IOException("Too many flights for one file");
+        }
+        ColumnWriter.write(path, HEADER_BYTES, crc -> {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(crc).flip();
+            return header;
+        }, out -> {
+            for (int i = 0; i < n; i++) out.putInt(times.getDuration(i));
+            out.pad(layout.departedAt);
+            for (int i = 0; i < n; i++) out.putInt(times.getDeparted(i));
+            out.pad(layout.arrivedAt);
+            for (int i = 0; i < n; i++) out.putInt(times.getArrived(i));
+            out.pad(layout.fromAt);
+            for (int i = 0; i < n; i++) out.putShort(times.getFromId(i));
+            out.pad(layout.toAt);
+            for (int i = 0; i < n; i++) out.putShort(times.getToId(i));
+            out.pad(layout.scheduledAt);
+            for (int i = 0; i < n; i++) out.putShort(times.getScheduled(i));
+            out.pad(layout.end);
+            return out.finish();
+        });
+    }
+
+    /**
+     * Opens a results file and checks its header, size and checksum.
+     *
+     * @throws FileFormatException if it is not a valid results file
+     * @throws IOException if it cannot be read
+     */
+    public static FlightTimesFile open(Path path) throws IOException, FileFormatException {
+        ByteBuffer data = ColumnReader.load(path, "Not a results file.");
+        if (data.limit() < HEADER_BYTES || data.getInt(0) != MAGIC) throw new FileFormatException("Not a results file.");
+        if (data.getInt(4) != VERSION) throw new FileFormatException("Unsupported results file version " + data.getInt(4) + ".");
+        int n = data.getInt(8);
+        FlightTimesFile file;
+        try {
+            if (n < 0) throw new IllegalArgumentException();
+            file = new FlightTimesFile(data, n);
+        } catch (IllegalArgumentException ex) {
+            throw new FileFormatException("Corrupt results file header.");
+        }
+        if (file.end != data.limit()) throw new FileFormatException("Results file is truncated or corrupt.");
+        if (ColumnReader.checksum(data, HEADER_BYTES) != data.getInt(12)) throw new FileFormatException("Results file checksum mismatch.");
+        return file;
+    }
+
+    public int getFlightCount() { return flights; }
+
+    public int getDuration(int i) { return buf.getInt(durationAt + 4 * check(i)); }
+    public int getDeparted(int i) { return buf.getInt(departedAt + 4 * check(i)); }
+    public int getArrived(int i) { return buf.getInt(arrivedAt + 4 * check(i)); }
+    public int getFromId(int i) { return buf.getShort(fromAt + 2 * check(i)); }
+    public int getToId(int i) { return buf.getShort(toAt + 2 * check(i)); }
+    public int getScheduled(int i) { return buf.getShort(scheduledAt + 2 * check(i)); }
+
+    private int check(int i) {
+        if (i < 0 || i >= flights) throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + flights);
+        return i;
+    }
+}
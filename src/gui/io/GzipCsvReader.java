@@ -0,0 +1,192 @@
+package gui.io;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import gui.service.ProgressMonitor;
+
+/**
+ * Reader for gzipped CSV files, used by MappedCsvReader. A gzip stream can
+ * only be inflated front to back, so one thread inflates the file into
+ * line-aligned blocks while parser threads tokenize the blocks inflated
+ * before; the two overlap instead of inflating to a temporary file first.
+ * A fixed set of blocks circulates between the threads, so memory use does
+ * not grow with the file.
+ */
+final class GzipCsvReader {
+
+    /** Inflated bytes per block; a block grows only for a line longer than this. */
+    private static final int BLOCK = 4 << 20;
+
+    private static final class Block {
+        byte[] data;
+        int length;
+        int index;
+
+        Block(int size) {
+            data = new byte[size];
+        }
+    }
+
+    /** Tells a parser thread that no more blocks will come. */
+    private static final Block END = new Block(0);
+
+    private GzipCsvReader() {}
+
+    /**
+     * Parses the whole file; the "Reading" phase is counted in compressed bytes.
+     *
+     * @see MappedCsvReader#read(Path, long, long, int, Supplier, int, ProgressMonitor)
+     */
+    static <P extends MappedCsvReader.ChunkParser> List<MappedCsvReader.Chunk<P>> read(Path file, int firstLine,
+            Supplier<P> parsers, int threads, ProgressMonitor monitor) throws IOException {
+        monitor.begin("Reading", Files.size(file));
+        int workers = Math.max(1, threads);
+        BlockingQueue<Block> free = new ArrayBlockingQueue<>(workers + 2);
+        BlockingQueue<Block> full = new ArrayBlockingQueue<>(workers + 2);
+        for (int i = 0; i < workers + 2; i++) free.add(new Block(BLOCK));
+
+        List<P> chunkParsers = new ArrayList<>();
+        List<Integer> lineCounts = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(workers + 1, r -> {
+            Thread t = new Thread(r, "csv-gunzip");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            CompletionService<Void> tasks = new ExecutorCompletionService<>(pool);
+            tasks.submit(() -> {
+                try {
+                    inflate(file, free, full, monitor);
+                } finally {
+                    for (int i = 0; i < workers; i++) full.put(END);
+                }
+                return null;
+            });
+            for (int w = 0; w < workers; w++) {
+                tasks.submit(() -> {
+                    for (Block b; (b = full.take()) != END; ) {
+                        P p = parsers.get();
+                        ByteBuffer buf = ByteBuffer.wrap(b.data);
+                        int pos = (b.index == 0) ? MappedCsvReader.byteOrderMark(buf, b.length) : 0;
+                        int lines = MappedCsvReader.parseLines(buf, pos, b.length, p, monitor, false);
+                        synchronized (chunkParsers) {
+                            while (chunkParsers.size() <= b.index) {
+                                chunkParsers.add(null);
+                                lineCounts.add(0);
+                            }
+                            chunkParsers.set(b.index, p);
+                            lineCounts.set(b.index, lines);
+                        }
+                        free.put(b);
+                    }
+                    return null;
+                });
+            }
+            // the first failure ends the read; shutdownNow below stops the other tasks
+            for (int i = 0; i < workers + 1; i++) tasks.take().get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading " + file, ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IOException(cause);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        List<MappedCsvReader.Chunk<P>> chunks = new ArrayList<>(chunkParsers.size());
+        int line = firstLine;
+        for (int i = 0; i < chunkParsers.size(); i++) {
+            chunks.add(new MappedCsvReader.Chunk<>(chunkParsers.get(i), line, lineCounts.get(i)));
+            line += lineCounts.get(i);
+        }
+        return chunks;
+    }
+
+    /**
+     * Inflates the file into blocks that end just after a '\n' (the last one
+     * at the end of the file), numbered in file order.
+     */
+    private static void inflate(Path file, BlockingQueue<Block> free, BlockingQueue<Block> full,
+            ProgressMonitor monitor) throws IOException, InterruptedException {
+        byte[] carry = new byte[0];
+        int carryLength = 0;
+        int index = 0;
+        try (InputStream in = Compression.openInput(new CountingStream(Files.newInputStream(file), monitor), true)) {
+            boolean eof = false;
+            while (!eof) {
+                monitor.checkCancelled();
+                Block b = free.take();
+                if (b.data.length < carryLength * 2) b.data = new byte[carryLength * 2];
+                System.arraycopy(carry, 0, b.data, 0, carryLength);
+                int length = carryLength;
+                int lineEnd = -1;
+                while (lineEnd < 0) {
+                    if (length == b.data.length) b.data = Arrays.copyOf(b.data, length * 2); // line longer than a block
+                    int n = in.readNBytes(b.data, length, b.data.length - length);
+                    int scanFrom = length;
+                    length += n;
+                    if (length < b.data.length) {
+                        eof = true;
+                        lineEnd = length;
+                    } else {
+                        for (int i = length - 1; i >= scanFrom; i--) {
+                            if (b.data[i] == '\n') {
+                                lineEnd = i + 1;
+                                break;
+                            }
+                        }
+                    }
+                }
+                carryLength = length - lineEnd;
+                if (carry.length < carryLength) carry = new byte[Math.max(carryLength, carry.length * 2)];
+                System.arraycopy(b.data, lineEnd, carry, 0, carryLength);
+                b.length = lineEnd;
+                b.index = index++;
+                full.put(b);
+            }
+        }
+    }
+
+    /** Reports the compressed bytes read as progress. */
+    private static final class CountingStream extends FilterInputStream {
+        private final ProgressMonitor monitor;
+
+        CountingStream(InputStream in, ProgressMonitor monitor) {
+            super(in);
+            this.monitor = monitor;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) monitor.worked(1, 0);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) monitor.worked(n, 0);
+            return n;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package gui.io;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import gui.service.RegistrationReport;
+
+/**
+ * Outcome of a bulk import: how many rows were registered and how many were
+ * rejected. Only the rejected rows with the lowest line numbers are kept, at
+ * most a given number, so a bad file of millions of rows costs no more than
+ * that; the listener, if any, is told of every rejected row as it is
+ * recorded.
+ */
+public final class ImportReport {
+
+    /** Receives each rejected row as it is recorded, e.g. to show it while an import runs. */
+    public interface Listener {
+        void rejected(int line, String message);
+    }
+
+    /** Rejected rows kept by default; more than any caller shows. */
+    public static final int DEFAULT_KEPT = 1000;
+
+    private final Listener listener;
+    private final int kept;
+    private int registered;
+    private int updated, removed, unchanged;
+    private int rejected;
+    // the kept rows: a max-heap on (line, record order), so the last kept row is dropped first
+    private long[] keys = new long[16];
+    private String[] messages = new String[16];
+    private int size;
+
+    public ImportReport() {
+        this(null);
+    }
+
+    /** @param listener told of every rejected row, on the recording thread; may be null */
+    public ImportReport(Listener listener) {
+        this(listener, DEFAULT_KEPT);
+    }
+
+    /**
+     * @param listener told of every rejected row, on the recording thread; may be null
+     * @param kept     rejected rows to keep for toMessages, those with the lowest line numbers
+     */
+    public ImportReport(Listener listener, int kept) {
+        this.listener = listener;
+        this.kept = Math.max(0, kept);
+    }
+
+    /** Records a rejected row. */
+    public void reject(int line, String message) {
+        if (listener != null) listener.rejected(line, message);
+        long key = ((long) line << 32) | rejected++;
+        if (size < kept) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                messages = Arrays.copyOf(messages, size * 2);
+            }
+            siftUp(size++, key, message);
+        } else if (size > 0 && key < keys[0]) {
+            siftDown(key, message);
+        }
+    }
+
+    private void siftUp(int i, long key, String message) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] >= key) break;
+            keys[i] = keys[parent];
+            messages[i] = messages[parent];
+            i = parent;
+        }
+        keys[i] = key;
+        messages[i] = message;
+    }
+
+    // replaces the root (the highest kept key)
+    private void siftDown(long key, String message) {
+        int i = 0;
+        for (int child; (child = 2 * i + 1) < size; i = child) {
+            if (child + 1 < size && keys[child + 1] > keys[child]) child++;
+            if (keys[child] <= key) break;
+            keys[i] = keys[child];
+            messages[i] = messages[child];
+        }
+        keys[i] = key;
+        messages[i] = message;
+    }
+
+    /**
+     * Adds the outcome of a bulk registration.
+     *
+     * @param lineOfRow file line number of each registered row
+     */
+    public void addAll(RegistrationReport report, int[] lineOfRow) {
+        registered += report.getRegistered();
+        updated += report.getUpdated();
+        removed += report.getRemoved();
+        unchanged += report.getUnchanged();
+        for (int i = 0; i < report.getRejectedCount(); i++) {
+            reject(lineOfRow[report.getRejectedRow(i)], report.getMessage(i));
+        }
+    }
+
+    public int getRegistered() { return registered; }
+
+    /** Flights changed in place by a sync import; 0 for other imports. */
+    public int getUpdated() { return updated; }
+
+    /** Flights removed by a sync import; 0 for other imports. */
+    public int getRemoved() { return removed; }
+
+    /** Rows of a sync import that matched a registered flight; 0 for other imports. */
+    public int getUnchanged() { return unchanged; }
+
+    public int getRejected() { return rejected; }
+
+    public boolean hasErrors() { return rejected > 0; }
+
+    /**
+     * "Line N: message" texts ordered by line, at most limit of them (and no
+     * more than were kept) plus a closing "... and K more" line when some
+     * are left out.
+     */
+    public List<String> toMessages(int limit) {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) order[i] = i;
+        // by line, then in the order they were rejected
+        Arrays.sort(order, (a, b) -> Long.compare(keys[a], keys[b]));
+        int shown = Math.min(limit, size);
+        List<String> out = new ArrayList<>(shown + 1);
+        for (int i = 0; i < shown; i++) {
+            out.add("Line " + (int) (keys[order[i]] >>> 32) + ": " + messages[order[i]]);
+        }
+        if (rejected > shown) out.add("... and " + (rejected - shown) + " more");
+        return out;
+    }
+}
@@ -0,0 +1,246 @@
+package gui.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import gui.service.ProgressMonitor;
+
+/**
+ * Parallel reader for large CSV files. The file is memory-mapped, split into
+ * line-aligned chunks, and each chunk is tokenized on a worker thread by its
+ * own parser, so workers share nothing. Lines end with '\n' or "\r\n"; blank
+ * lines are skipped but still counted, so line numbers match a text editor.
+ *
+ * Gzipped files cannot be mapped; they are inflated on a thread of their own
+ * while earlier blocks are parsed (see GzipCsvReader).
+ */
+public final class MappedCsvReader {
+
+    /** Receives the non-blank lines of one chunk, in file order, on one thread. */
+    public interface ChunkParser {
+        /**
+         * @param row         the line; only valid during the call
+         * @param lineInChunk 0-based line index within the chunk
+         */
+        void row(CsvRow row, int lineInChunk);
+    }
+
+    /** A parsed chunk: its parser and the file line numbers it covers. */
+    public static final class Chunk<P extends ChunkParser> {
+        private final P parser;
+        private final int firstLine;
+        private final int lineCount;
+
+        Chunk(P parser, int firstLine, int lineCount) {
+            this.parser = parser;
+            this.firstLine = firstLine;
+            this.lineCount = lineCount;
+        }
+
+        public P getParser() { return parser; }
+
+        /** Lines in the chunk, blank ones included. */
+        public int getLineCount() { return lineCount; }
+
+        /** 1-based file line number of a line of this chunk. */
+        public int lineNumber(int lineInChunk) { return firstLine + lineInChunk; }
+    }
+
+    /** Smallest chunk worth a task of its own. */
+    private static final long MIN_CHUNK = 1L << 20;
+    /** A mapping is limited to 2 GB; stay well below. */
+    private static final long MAX_CHUNK = 1L << 30;
+
+    private MappedCsvReader() {}
+
+    /** Reads with one worker per available processor. */
+    public static <P extends ChunkParser> List<Chunk<P>> read(Path file, Supplier<P> parsers) throws IOException {
+        return read(file, parsers, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Parses the file in parallel.
+     *
+     * @param parsers creates one parser per chunk
+     * @param threads number of worker threads
+     * @return the chunks in file order
+     * @throws IOException if the file cannot be read
+     */
+    public static <P extends ChunkParser> List<Chunk<P>> read(Path file, Supplier<P> parsers, int threads) throws IOException {
+        return read(file, 0, -1, 1, parsers, threads, new ProgressMonitor());
+    }
+
+    /**
+     * Parses the bytes [from, to) of the file in parallel, e.g. lines appended
+     * since an earlier read. from must be the start of a line.
+     *
+     * @param from      start of the range; must be 0 for a gzipped file
+     * @param to        end of the range, or -1 for the end of the file (must be -1 for a gzipped file)
+     * @param firstLine file line number of the line at from
+     * @param monitor   gets a "Reading" phase counted in bytes; checked for cancellation
+     * @return the chunks in file order
+     * @throws IOException if the file cannot be read
+     * @throws java.util.concurrent.CancellationException if the monitor was cancelled
+     */
+    public static <P extends ChunkParser> List<Chunk<P>> read(Path file, long from, long to, int firstLine,
+            Supplier<P> parsers, int threads, ProgressMonitor monitor) throws IOException {
+        if (Compression.isGzipped(file)) {
+            if (from != 0 || to >= 0) throw new IOException("Cannot read a byte range of compressed file " + file);
+            return GzipCsvReader.read(file, firstLine, parsers, threads, monitor);
+        }
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long end = (to < 0) ? ch.size() : Math.min(to, ch.size());
+            monitor.begin("Reading", end - Math.min(from, end));
+            long[] bounds = split(ch, Math.min(from, end), end, Math.max(1, threads));
+            int n = bounds.length - 1;
+            List<P> chunkParsers = new ArrayList<>(n);
+            int[] lineCounts = new int[n];
+            if (n == 1 || threads <= 1) {
+                for (int i = 0; i < n; i++) {
+                    P p = parsers.get();
+                    lineCounts[i] = parseChunk(ch, bounds[i], bounds[i + 1], p, monitor);
+                    chunkParsers.add(p);
+                }
+            } else {
+                ExecutorService workers = Executors.newFixedThreadPool(Math.min(threads, n), r -> {
+                    Thread t = new Thread(r, "csv-reader");
+                    t.setDaemon(true);
+                    return t;
+                });
+                try {
+                    List<Future<Integer>> counts = new ArrayList<>(n);
+                    for (int i = 0; i < n; i++) {
+                        P p = parsers.get();
+                        long chunkFrom = bounds[i], chunkTo = bounds[i + 1];
+                        chunkParsers.add(p);
+                        counts.add(workers.submit(() -> parseChunk(ch, chunkFrom, chunkTo, p, monitor)));
+                    }
+                    for (int i = 0; i < n; i++) lineCounts[i] = counts.get(i).get();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while reading " + file, ex);
+                } catch (ExecutionException ex) {
+                    Throwable cause = ex.getCause();
+                    if (cause instanceof IOException) throw (IOException) cause;
+                    if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                    throw new IOException(cause);
+                } finally {
+                    workers.shutdownNow();
+                }
+            }
+
+            List<Chunk<P>> chunks = new ArrayList<>(n);
+            int line = firstLine;
+            for (int i = 0; i < n; i++) {
+                chunks.add(new Chunk<>(chunkParsers.get(i), line, lineCounts[i]));
+                line += lineCounts[i];
+            }
+            return chunks;
+        }
+    }
+
+    /**
+     * Chunk boundaries: every boundary but the last is the byte just after a
+     * '\n', so chunks hold whole lines.
+     */
+    private static long[] split(FileChannel ch, long from, long size, int threads) throws IOException {
+        long target = Math.min(MAX_CHUNK, Math.max(MIN_CHUNK, (size - from) / (threads * 4L)));
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(from);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long pos = from;
+        while (size - pos > target) {
+            long next = lineStartAfter(ch, pos + target, size, probe);
+            if (next >= size) break;
+            // a line longer than a whole chunk: cannot split without splitting it
+            if (next - pos > MAX_CHUNK) throw new IOException("Line too long at byte " + pos);
+            bounds.add(next);
+            pos = next;
+        }
+        if (size - pos > MAX_CHUNK) throw new IOException("Line too long at byte " + pos);
+        bounds.add(size);
+        long[] out = new long[bounds.size()];
+        for (int i = 0; i < out.length; i++) out[i] = bounds.get(i);
+        return out;
+    }
+
+    // position just after the first '\n' at or after pos (size if there is none)
+    private static long lineStartAfter(FileChannel ch, long pos, long size, ByteBuffer probe) throws IOException {
+        while (pos < size) {
+            probe.clear();
+            int n = ch.read(probe, pos);
+            if (n <= 0) break;
+            for (int i = 0; i < n; i++) {
+                if (probe.get(i) == '\n') return pos + i + 1;
+            }
+            pos += n;
+        }
+        return size;
+    }
+
+    /** Tokenizes one chunk; returns its number of lines. */
+    private static int parseChunk(FileChannel ch, long from, long to, ChunkParser parser, ProgressMonitor monitor)
+            throws IOException {
+        if (to <= from) return 0;
+        MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+        int end = buf.limit();
+        int pos = (from == 0) ? byteOrderMark(buf, end) : 0;
+        return parseLines(buf, pos, end, parser, monitor, true);
+    }
+
+    /** Length of a UTF-8 byte order mark at the start of the buffer (0 or 3). */
+    static int byteOrderMark(ByteBuffer buf, int end) {
+        boolean bom = end >= 3 && buf.get(0) == (byte) 0xEF && buf.get(1) == (byte) 0xBB && buf.get(2) == (byte) 0xBF;
+        return bom ? 3 : 0;
+    }
+
+    /**
+     * Tokenizes the lines in [pos, end) of the buffer; returns their number.
+     *
+     * @param countBytes report the bytes parsed as units of work, not only the rows
+     */
+    static int parseLines(ByteBuffer buf, int pos, int end, ChunkParser parser, ProgressMonitor monitor,
+            boolean countBytes) {
+        CsvRow row = new CsvRow();
+        int line = 0;
+        int reported = 0, reportedLine = 0;
+        while (pos < end) {
+            if ((line & 0x3FFF) == 0) {
+                monitor.checkCancelled();
+                monitor.worked(countBytes ? pos - reported : 0, line - reportedLine);
+                reported = pos;
+                reportedLine = line;
+            }
+            int eol = pos;
+            while (eol < end && buf.get(eol) != '\n') eol++;
+            int lineEnd = eol;
+            if (lineEnd > pos && buf.get(lineEnd - 1) == '\r') lineEnd--;
+            if (!isBlank(buf, pos, lineEnd)) {
+                row.reset(buf, pos, lineEnd);
+                parser.row(row, line);
+            }
+            line++;
+            pos = eol + 1;
+        }
+        monitor.worked(countBytes ? end - reported : 0, line - reportedLine);
+        return line;
+    }
+
+    private static boolean isBlank(ByteBuffer buf, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buf.get(i) > ' ') return false;
+        }
+        return true;
+    }
+}
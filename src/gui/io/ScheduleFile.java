@@ -0,0 +1,236 @@
+package gui.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import gui.exceptions.FileFormatException;
+import gui.models.Airplane;
+import gui.models.Airport;
+import gui.models.AirportCodes;
+import gui.models.ScheduleStore;
+import gui.service.AirportRow;
+import gui.service.RegistrationReport;
+import gui.service.RegistrationService;
+
+/**
+ * Columnar binary schedule file. Opening one memory-maps it and checks the
+ * header and checksum; the columns are then read in place, with no parsing.
+ * Files named "*.fsch.gz" are written gzipped and inflated into memory when
+ * opened (see Compression).
+ *
+ * Layout (little-endian). Each column starts on an 8-byte boundary.
+ * <pre>
+ *  header  magic "FSCH", version, airport count A, flight count F,
+ *          name bytes N, CRC32 of everything after the header (6 ints)
+ *  double  x[A], y[A]                 airport world coordinates
+ *  int     nameEnd[A]                 end offset of each name in names
+ *  int     duration[F]                minutes
+ *  short   code[A]                    encoded airport codes (AirportCodes)
+ *  short   from[F], to[F]             encoded codes of the flight airports
+ *  short   departure[F]               minutes since 00:00
+ *  byte    names[N]                   UTF-8 airport names
+ * </pre>
+ */
+public final class ScheduleFile {
+
+    /** File name extension of schedule files. */
+    public static final String EXTENSION = ".fsch";
+
+    private static final int MAGIC = 'F' | 'S' << 8 | 'C' << 16 | 'H' << 24;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 24;
+
+    private final ByteBuffer buf;
+    private final int airports, flights;
+    private final int xAt, yAt, nameEndAt, durationAt, codeAt, fromAt, toAt, departureAt, namesAt;
+
+    private ScheduleFile(ByteBuffer buf, int airports, int flights) {
+        this.buf = buf;
+        this.airports = airports;
+        this.flights = flights;
+        int at = HEADER_BYTES;
+        xAt = at;
+        yAt = at = align(at + 8L * airports);
+        nameEndAt = at = align(at + 8L * airports);
+        durationAt = at = align(at + 4L * airports);
+        codeAt = at = align(at + 4L * flights);
+        fromAt = at = align(at + 2L * airports);
+        toAt = at = align(at + 2L * flights);
+        departureAt = at = align(at + 2L * flights);
+        namesAt = align(at + 2L * flights);
+    }
+
+    private static int align(long at) {
+        long aligned = (at + 7) & ~7L;
+        if (aligned > Integer.MAX_VALUE) throw new IllegalArgumentException("schedule too large");
+        return (int) aligned;
+    }
+
+    // ---------------------------------------------------------------- writing
+
+    /**
+     * Writes airports and flights (e.g. one model snapshot) to a schedule file.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, List<Airport> airportList, List<Airplane> flightList) throws IOException {
+        int a = airportList.size(), f = flightList.size();
+        byte[][] names = new byte[a][];
+        int total = 0;
+        for (int i = 0; i < a; i++) {
+            names[i] = airportList.get(i).getName().getBytes(StandardCharsets.UTF_8);
+            total += names[i].length;
+        }
+        int nameBytes = total;
+        ScheduleFile layout = new ScheduleFile(null, a, f);
+        long size = (long) layout.namesAt + nameBytes;
+        if (size > Integer.MAX_VALUE) throw new IOException("Schedule too large for one file");
+
+        ColumnWriter.write(path, HEADER_BYTES, crc -> header(a, f, nameBytes, crc),
+                out -> writeColumns(out, layout, airportList, flightList, names));
+    }
+
+    /** Writes the columns after the header; returns their CRC32. */
+    private static int writeColumns(ColumnWriter out, ScheduleFile layout, List<Airport> airportList,
+            List<Airplane> flightList, byte[][] names) throws IOException {
+        for (Airport ap : airportList) out.putDouble(ap.getNsX());
+        out.pad(layout.yAt);
+        for (Airport ap : airportList) out.putDouble(ap.getNsY());
+        out.pad(layout.nameEndAt);
+        int end = 0;
+        for (byte[] n : names) out.putInt(end += n.length);
+        out.pad(layout.durationAt);
+        for (Airplane fl : flightList) out.putInt(fl.getDuration());
+        out.pad(layout.codeAt);
+        for (Airport ap : airportList) out.putShort(ap.getCodeId());
+        out.pad(layout.fromAt);
+        for (Airplane fl : flightList) out.putShort(fl.getFrom().getCodeId());
+        out.pad(layout.toAt);
+        for (Airplane fl : flightList) out.putShort(fl.getTo().getCodeId());
+        out.pad(layout.departureAt);
+        for (Airplane fl : flightList) out.putShort(fl.getDepartureInMinutes());
+        out.pad(layout.namesAt);
+        for (byte[] n : names) out.putBytes(n);
+        return out.finish();
+    }
+
+    private static ByteBuffer header(int airports, int flights, int nameBytes, int crc) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(airports).putInt(flights).putInt(nameBytes).putInt(crc).flip();
+        return header;
+    }
+
+    // ---------------------------------------------------------------- reading
+
+    /**
+     * Maps a schedule file and checks its header, size and checksum. A
+     * gzipped file is inflated into memory instead.
+     *
+     * @throws FileFormatException if it is not a valid schedule file
+     * @throws IOException if it cannot be read
+     */
+    public static ScheduleFile open(Path path) throws IOException, FileFormatException {
+        return check(ColumnReader.load(path, "Not a schedule file."));
+    }
+
+    private static ScheduleFile check(ByteBuffer data) throws FileFormatException {
+        int size = data.limit();
+        if (size < HEADER_BYTES) throw new FileFormatException("Not a schedule file.");
+        if (data.getInt(0) != MAGIC) throw new FileFormatException("Not a schedule file.");
+        if (data.getInt(4) != VERSION) throw new FileFormatException("Unsupported schedule file version " + data.getInt(4) + ".");
+        int a = data.getInt(8), f = data.getInt(12), nameBytes = data.getInt(16);
+        if (a < 0 || f < 0 || nameBytes < 0) throw new FileFormatException("Corrupt schedule file header.");
+        ScheduleFile file;
+        try {
+            file = new ScheduleFile(data, a, f);
+        } catch (IllegalArgumentException ex) {
+            throw new FileFormatException("Corrupt schedule file header.");
+        }
+        if ((long) file.namesAt + nameBytes != size) throw new FileFormatException("Schedule file is truncated or corrupt.");
+
+        if (ColumnReader.checksum(data, HEADER_BYTES) != data.getInt(20)) throw new FileFormatException("Schedule file checksum mismatch.");
+        return file;
+    }
+
+    public int getAirportCount() { return airports; }
+    public int getFlightCount() { return flights; }
+
+    public int getAirportCodeId(int i) { return buf.getShort(codeAt + 2 * check(i, airports)); }
+    public double getAirportX(int i) { return buf.getDouble(xAt + 8 * check(i, airports)); }
+    public double getAirportY(int i) { return buf.getDouble(yAt + 8 * check(i, airports)); }
+
+    public String getAirportName(int i) {
+        int end = buf.getInt(nameEndAt + 4 * check(i, airports));
+        int start = (i == 0) ? 0 : buf.getInt(nameEndAt + 4 * (i - 1));
+        byte[] b = new byte[end - start];
+        buf.get(namesAt + start, b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    public int getFromId(int i) { return buf.getShort(fromAt + 2 * check(i, flights)); }
+    public int getToId(int i) { return buf.getShort(toAt + 2 * check(i, flights)); }
+    public int getDeparture(int i) { return buf.getShort(departureAt + 2 * check(i, flights)); }
+    public int getDuration(int i) { return buf.getInt(durationAt + 4 * check(i, flights)); }
+
+    private static int check(int i, int size) {
+        if (i < 0 || i >= size) throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+        return i;
+    }
+
+    /** The flight columns as packed records. */
+    public ScheduleStore toScheduleStore() throws FileFormatException {
+        ScheduleStore store = new ScheduleStore(flights);
+        for (int i = 0; i < flights; i++) {
+            try {
+                store.add(getFromId(i), getToId(i), getDeparture(i), getDuration(i));
+            } catch (IllegalArgumentException ex) {
+                throw new FileFormatException("Invalid flight record " + (i + 1) + ": " + ex.getMessage() + ".");
+            }
+        }
+        return store;
+    }
+
+    /**
+     * Replaces the registered airports and flights with the file contents,
+     * as one model transaction. Rows are validated like any bulk registration.
+     *
+     * @param maxMessages most rejected rows to describe
+     * @return descriptions of the rejected rows (empty if everything loaded)
+     * @throws FileFormatException if a record cannot be decoded
+     */
+    public List<String> loadInto(RegistrationService service, int airportWidth, int flightWidth, int maxMessages)
+            throws FileFormatException {
+        List<AirportRow> rows = new ArrayList<>(airports);
+        for (int i = 0; i < airports; i++) {
+            int id = getAirportCodeId(i);
+            if (!AirportCodes.isValid(id)) throw new FileFormatException("Invalid airport record " + (i + 1) + ".");
+            rows.add(new AirportRow(getAirportName(i), AirportCodes.decode(id), getAirportX(i), getAirportY(i)));
+        }
+        ScheduleStore store = toScheduleStore();
+
+        RegistrationReport[] reports = new RegistrationReport[2];
+        service.inBatch(() -> {
+            service.clearAll();
+            reports[0] = service.registerAirports(rows, airportWidth);
+            reports[1] = service.registerFlights(store, flightWidth);
+        });
+
+        List<String> messages = new ArrayList<>();
+        describe(reports[0], "Airport", messages, maxMessages);
+        describe(reports[1], "Flight", messages, maxMessages);
+        int rejected = reports[0].getRejectedCount() + reports[1].getRejectedCount();
+        if (rejected > messages.size()) messages.add("... and " + (rejected - messages.size()) + " more");
+        return messages;
+    }
+
+    private static void describe(RegistrationReport report, String kind, List<String> out, int max) {
+        for (int i = 0; i < report.getRejectedCount() && out.size() < max; i++) {
+            out.add(kind + " " + (report.getRejectedRow(i) + 1) + ": " + report.getMessage(i));
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package gui.models;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Interval index over the scheduled airborne time of flights,
+ * [departure, departure + duration) in minutes from 00:00, for queries such as
+ * "which flights are in the air at minute T" without running the simulation.
+ *
+ * Departures fall into the 1440 minutes of a day, so the index keeps one
+ * array per departure minute, sorted by duration (longest first), with the
+ * durations copied into a parallel int array so searches stay in one array. The flights
+ * of a bucket that are still in the air at T are then a prefix found by binary
+ * search: a query costs one O(log b) search per departure minute that can
+ * reach T (at most 1440) plus the flights reported. Adds and removes shift
+ * within one bucket. Times are scheduled ones: delays from the separation
+ * rule are not known before a run.
+ * Not thread-safe; kept inside a FlightIndex.
+ */
+final class AirborneIndex {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final Airplane[] EMPTY = new Airplane[0];
+    private static final int[] NO_DURATIONS = new int[0];
+
+    private final Airplane[][] buckets = new Airplane[MINUTES_PER_DAY][];
+    private final int[][] durations = new int[MINUTES_PER_DAY][];
+    private final int[] counts = new int[MINUTES_PER_DAY];
+    private int size;
+    private int maxDuration; // upper bound; not lowered by removals
+
+    AirborneIndex() {
+        Arrays.fill(buckets, EMPTY);
+        Arrays.fill(durations, NO_DURATIONS);
+    }
+
+    int size() { return size; }
+
+    void add(Airplane f) {
+        int m = f.getDepartureInMinutes();
+        int n = counts[m];
+        Airplane[] b = buckets[m];
+        int[] d = durations[m];
+        if (n == b.length) {
+            b = buckets[m] = Arrays.copyOf(b, Math.max(4, n * 2));
+            d = durations[m] = Arrays.copyOf(d, b.length);
+        }
+        // after flights of equal duration, keeping registration order
+        int i = firstNotLonger(d, n, f.getDuration() - 1);
+        System.arraycopy(b, i, b, i + 1, n - i);
+        System.arraycopy(d, i, d, i + 1, n - i);
+        b[i] = f;
+        d[i] = f.getDuration();
+        counts[m] = n + 1;
+        size++;
+        if (f.getDuration() > maxDuration) maxDuration = f.getDuration();
+    }
+
+    /** Removes this very flight instance; returns false if it was not indexed. */
+    boolean remove(Airplane f) {
+        int m = f.getDepartureInMinutes();
+        int n = counts[m];
+        Airplane[] b = buckets[m];
+        int[] d = durations[m];
+        for (int i = firstNotLonger(d, n, f.getDuration()); i < n && d[i] == f.getDuration(); i++) {
+            if (b[i] == f) {
+                System.arraycopy(b, i + 1, b, i, n - i - 1);
+                System.arraycopy(d, i + 1, d, i, n - i - 1);
+                b[n - 1] = null;
+                counts[m] = n - 1;
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void clear() {
+        Arrays.fill(buckets, EMPTY);
+        Arrays.fill(durations, NO_DURATIONS);
+        Arrays.fill(counts, 0);
+        size = 0;
+        maxDuration = 0;
+    }
+
+    /** Adds the flights in the air at any time in [from, to] to out, in departure order. */
+    void overlapping(long from, long to, List<Airplane> out) {
+        int hi = (int) Math.min(to, MINUTES_PER_DAY - 1);
+        for (int m = firstBucket(from); m <= hi; m++) {
+            Airplane[] b = buckets[m];
+            for (int i = 0, k = stillFlying(m, from); i < k; i++) out.add(b[i]);
+        }
+    }
+
+    /** Number of flights in the air at the given minute. */
+    int countAirborneAt(long minute) {
+        int n = 0;
+        int hi = (int) Math.min(minute, MINUTES_PER_DAY - 1);
+        for (int m = firstBucket(minute); m <= hi; m++) n += stillFlying(m, minute);
+        return n;
+    }
+
+    // earliest departure minute whose flights can still be flying at the given time
+    private int firstBucket(long time) {
+        return (int) Math.max(0, Math.min(MINUTES_PER_DAY, time - maxDuration + 1));
+    }
+
+    // number of flights departing at minute m that land after the given time
+    private int stillFlying(int m, long time) {
+        long minDuration = time - m; // a flight needs duration > minDuration
+        if (minDuration < 1) return counts[m];
+        if (minDuration >= maxDuration) return 0;
+        return firstNotLonger(durations[m], counts[m], (int) minDuration);
+    }
+
+    // first index in durations[0..n) (longest first) whose value is <= d
+    private static int firstNotLonger(int[] durations, int n, int d) {
+        int lo = 0, hi = n;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (durations[mid] > d) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+}
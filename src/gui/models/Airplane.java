@@ -1,27 +1,25 @@
 package gui.models;
 
-import java.awt.Color;
 import java.awt.Graphics;
 
+import gui.render.Projection;
+import gui.render.SpriteAtlas;
+
 /**
  * Represents a single airplane flying between two airports in the simulation.
- * Stores departure time, duration, current position, and active state.
+ * Stores departure time and duration; position and velocity live in a
+ * FlightTrack that only exists while the airplane is in the air.
+ * Positions are world coordinates, like the airports'.
  */
 public class Airplane extends Figure {
 
     private Airport from;
     private Airport to;
-    private int hours;
-    private int minutes;
-    private int duration; // in minutes
+    private short departure; // minutes from 00:00
+    private int duration;    // in minutes
     private boolean visible = true;
 
-    private long startSimTimeInMinutes = -1;
-    private boolean active = false;
-
-    private double startX, startY, endX, endY;
-    private double vx, vy;
-    private long lastUpdateSimTime = -1;
+    private FlightTrack track; // null while grounded
 
     /**
      * Constructs a new Airplane.
@@ -37,81 +35,89 @@ public class Airplane extends Figure {
         this.from = srcAirport;
         this.to = destAirport;
         String[] parts = takeOffTime.split(":");
-        this.hours = Integer.parseInt(parts[0]);
-        this.minutes = Integer.parseInt(parts[1]);
+        this.departure = (short) (Integer.parseInt(parts[0]) * 60 + Integer.parseInt(parts[1]));
+        this.duration = duration;
+    }
+
+    /**
+     * Constructs a new Airplane from a departure time in minutes from 00:00.
+     */
+    public Airplane(int width, Airport srcAirport, Airport destAirport, int departureInMinutes, int duration) {
+        super(srcAirport.getX(), srcAirport.getY(), width);
+        this.from = srcAirport;
+        this.to = destAirport;
+        this.departure = (short) departureInMinutes;
         this.duration = duration;
     }
 
     /** Returns departure time in minutes from 00:00. */
     public int getDepartureInMinutes() {
-        return hours * 60 + minutes;
+        return departure;
     }
 
     public int getDuration() { return duration; }
-    public boolean isActive() { return active; }
+    public boolean isActive() { return track != null && track.lastUpdateSimTime - track.startSimTime < duration; }
+    public boolean isVisible() { return visible; }
     public void setVisible(boolean v) { this.visible = v; }
+    /** Unit direction of travel in world coordinates (east while grounded). */
+    public double getDirX() { return track != null ? track.dirX : 1.0; }
+    public double getDirY() { return track != null ? track.dirY : 0.0; }
+    public double getPrevX() { return track != null ? track.prevX : x; }
+    public double getPrevY() { return track != null ? track.prevY : y; }
+
+    public FlightState getState() { return track != null ? track.state : FlightState.ON_TIME; }
 
     /**
      * Activates the airplane in the simulation.
-     * Sets its start/end coordinates and velocity.
+     * Allocates its track: start/end coordinates, velocity, heading and display state.
      */
     public void activate(long simNowInMinutes) {
-        this.startSimTimeInMinutes = simNowInMinutes;
-        this.active = true;
-
-        this.startX = from.getX();
-        this.startY = from.getY();
-        this.endX = to.getX();
-        this.endY = to.getY();
-
-        this.x = startX;
-        this.y = startY;
-
-        if (duration > 0) {
-            this.vx = (endX - startX) / (double) duration;
-            this.vy = (endY - startY) / (double) duration;
-        } else {
-            this.vx = this.vy = 0.0;
-        }
-
-        this.lastUpdateSimTime = simNowInMinutes;
+        track = new FlightTrack(simNowInMinutes, from.getX(), from.getY(), to.getX(), to.getY(), duration);
+        track.state = simNowInMinutes > getDepartureInMinutes() ? FlightState.DELAYED : FlightState.ON_TIME;
+        this.x = track.startX;
+        this.y = track.startY;
     }
 
     /**
      * Updates the airplane's position based on elapsed simulation time.
-     * Automatically deactivates the airplane when it reaches its destination.
+     * The airplane stops being active when it reaches its destination; its
+     * track is kept until {@link #land()} so the last leg can still be drawn.
      */
     public void updatePosition(long simNowInMinutes) {
-        if (!active) return;
+        if (!isActive()) return;
+        FlightTrack t = track;
         visible = from.isVisible() && to.isVisible();
-        long delta = simNowInMinutes - lastUpdateSimTime;
+        t.prevX = x;
+        t.prevY = y;
+        long delta = simNowInMinutes - t.lastUpdateSimTime;
         if (delta <= 0) return;
 
-        x += vx * delta;
-        y += vy * delta;
-        lastUpdateSimTime = simNowInMinutes;
+        x += t.vx * delta;
+        y += t.vy * delta;
+        t.lastUpdateSimTime = simNowInMinutes;
 
-        long elapsed = simNowInMinutes - startSimTimeInMinutes;
+        long elapsed = simNowInMinutes - t.startSimTime;
         if (elapsed >= duration) {
-            x = endX;
-            y = endY;
-            active = false;
+            x = t.endX;
+            y = t.endY;
         }
     }
 
+    /** Releases the runtime state of a landed airplane. */
+    public void land() {
+        track = null;
+    }
+
     @Override
-    public void paint(Graphics g) {
-        if (!visible || !active) return;
-        Color prev = g.getColor();
-        g.setColor(Color.BLUE);
-        g.fillOval((int)Math.round(x - width/2), (int)Math.round(y - width/2), width, width);
-        g.setColor(prev);
+    public void paint(Graphics g, Projection p) {
+        if (!visible || !isActive()) return;
+        SpriteAtlas.drawAircraft(g, p, width, track.state, track.dirX, track.dirY, x, y);
     }
 
     @Override
     public String toString() {
         return String.format("[%s -> %s] %02d:%02d | %d min",
-                from.getCode(), to.getCode(), hours, minutes, duration);
+                from.getCode(), to.getCode(), getHours(), getMinutes(), duration);
     }
 
     // Getters and setters
@@ -119,18 +125,16 @@ public class Airplane extends Figure {
     public void setFrom(Airport from) { this.from = from; }
     public Airport getTo() { return to; }
     public void setTo(Airport to) { this.to = to; }
-    public int getHours() { return hours; }
-    public void setHours(int hours) { this.hours = hours; }
-    public int getMinutes() { return minutes; }
-    public void setMinutes(int minutes) { this.minutes = minutes; }
+    public int getHours() { return departure / 60; }
+    public void setHours(int hours) { this.departure = (short) (hours * 60 + getMinutes()); }
+    public int getMinutes() { return departure % 60; }
+    public void setMinutes(int minutes) { this.departure = (short) (getHours() * 60 + minutes); }
     public void setDuration(int duration) { this.duration = duration; }
 
     /** Resets airplane to its original position and deactivates it. */
     public void restoreOriginalPosition() {
         this.x = from.getX();
         this.y = from.getY();
-        this.active = false;
-        this.lastUpdateSimTime = -1;
-        this.startSimTimeInMinutes = -1;        
+        this.track = null;
     }
 }
@@ -0,0 +1,79 @@
+package gui.models;
+
+/**
+ * Packs three-letter airport codes (A-Z) into 15-bit ints: 5 bits per letter,
+ * first letter in the high bits. Encoded codes index dense airport tables
+ * directly and compare with ==, so hot paths never hash or allocate Strings.
+ */
+public final class AirportCodes {
+
+    /** Number of distinct encoded values; size of a dense airport table. */
+    public static final int TABLE_SIZE = 1 << 15;
+
+    /** Returned by the encode methods for anything that is not a valid code. */
+    public static final int INVALID = -1;
+
+    private AirportCodes() {}
+
+    /**
+     * Encodes a code, ignoring surrounding whitespace and letter case.
+     *
+     * @return the encoded code, or INVALID
+     */
+    public static int encode(CharSequence code) {
+        if (code == null) return INVALID;
+        int start = 0;
+        int end = code.length();
+        while (start < end && code.charAt(start) <= ' ') start++;
+        while (end > start && code.charAt(end - 1) <= ' ') end--;
+        if (end - start != 3) return INVALID;
+        int id = 0;
+        for (int i = start; i < end; i++) {
+            int l = letter(code.charAt(i));
+            if (l < 0) return INVALID;
+            id = (id << 5) | l;
+        }
+        return id;
+    }
+
+    /**
+     * Encodes a code stored as ASCII bytes in buf[from, to), ignoring
+     * surrounding whitespace and letter case.
+     *
+     * @return the encoded code, or INVALID
+     */
+    public static int encode(byte[] buf, int from, int to) {
+        while (from < to && buf[from] <= ' ') from++;
+        while (to > from && buf[to - 1] <= ' ') to--;
+        if (to - from != 3) return INVALID;
+        int id = 0;
+        for (int i = from; i < to; i++) {
+            int l = letter((char) (buf[i] & 0xff));
+            if (l < 0) return INVALID;
+            id = (id << 5) | l;
+        }
+        return id;
+    }
+
+    private static int letter(char c) {
+        if (c >= 'A' && c <= 'Z') return c - 'A';
+        if (c >= 'a' && c <= 'z') return c - 'a';
+        return -1;
+    }
+
+    /** Returns the i-th letter (0..2) of an encoded code. */
+    public static char letterAt(int id, int i) {
+        return (char) ('A' + ((id >>> (5 * (2 - i))) & 0x1f));
+    }
+
+    /** Decodes an encoded code into its three-letter String. */
+    public static String decode(int id) {
+        return new String(new char[] { letterAt(id, 0), letterAt(id, 1), letterAt(id, 2) });
+    }
+
+    /** Returns true if the value is a valid encoded code. */
+    public static boolean isValid(int id) {
+        return id >= 0 && id < TABLE_SIZE
+                && ((id >>> 10) & 0x1f) < 26 && ((id >>> 5) & 0x1f) < 26 && (id & 0x1f) < 26;
+    }
+}
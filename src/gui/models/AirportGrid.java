@@ -0,0 +1,128 @@
+package gui.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Spatial hash over airport world coordinates (nsX, nsY), maintained by
+ * SimulationModel. Coordinates are normalized to the 3 decimals used by the
+ * CSV format, so two airports are at the same place exactly when their
+ * exported coordinates are equal. Point and radius queries only visit the
+ * grid cells that can contain a match.
+ *
+ * Cells are immutable arrays in a ConcurrentHashMap, replaced on every
+ * change, so queries never lock and may run concurrently with writers.
+ */
+class AirportGrid {
+
+    /** Coordinate resolution: 1/1000 of a world unit. */
+    static final double RESOLUTION = 1000.0;
+
+    private static final double CELL_SIZE = 2.0;
+
+    private static final Airport[] EMPTY = new Airport[0];
+
+    private final ConcurrentHashMap<Long, Airport[]> cells = new ConcurrentHashMap<>();
+
+    /** Normalizes a world coordinate to an integer number of resolution steps. */
+    static long normalize(double v) {
+        return Math.round(v * RESOLUTION);
+    }
+
+    private static int cellOf(double v) {
+        return (int) Math.floor(v / CELL_SIZE);
+    }
+
+    private static long cellKey(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xffffffffL);
+    }
+
+    void add(Airport a) {
+        cells.merge(cellKey(cellOf(a.getNsX()), cellOf(a.getNsY())), new Airport[] { a }, (c, one) -> {
+            Airport[] grown = Arrays.copyOf(c, c.length + 1);
+            grown[c.length] = a;
+            return grown;
+        });
+    }
+
+    void remove(Airport a) {
+        cells.computeIfPresent(cellKey(cellOf(a.getNsX()), cellOf(a.getNsY())), (k, c) -> {
+            for (int i = 0; i < c.length; i++) {
+                if (c[i] != a) continue;
+                if (c.length == 1) return null; // drops the cell
+                Airport[] shrunk = Arrays.copyOf(c, c.length - 1);
+                System.arraycopy(c, i + 1, shrunk, i, c.length - i - 1);
+                return shrunk;
+            }
+            return c;
+        });
+    }
+
+    private Airport[] cell(int cx, int cy) {
+        Airport[] c = cells.get(cellKey(cx, cy));
+        return (c != null) ? c : EMPTY;
+    }
+
+    void clear() {
+        cells.clear();
+    }
+
+    /** Returns an airport whose normalized coordinates equal (x, y), or null. */
+    Airport findAt(double x, double y) {
+        long nx = normalize(x);
+        long ny = normalize(y);
+        // a normalized match can sit just across a cell border
+        Airport found = null;
+        int cx = cellOf(x);
+        int cy = cellOf(y);
+        for (int i = cx - 1; i <= cx + 1 && found == null; i++) {
+            for (int j = cy - 1; j <= cy + 1 && found == null; j++) {
+                for (Airport a : cell(i, j)) {
+                    if (normalize(a.getNsX()) == nx && normalize(a.getNsY()) == ny) {
+                        found = a;
+                        break;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /** Returns the airport closest to (x, y) within radius r, or null. */
+    Airport nearest(double x, double y, double r) {
+        Airport best = null;
+        double bestD2 = r * r;
+        for (int i = cellOf(x - r), i1 = cellOf(x + r); i <= i1; i++) {
+            for (int j = cellOf(y - r), j1 = cellOf(y + r); j <= j1; j++) {
+                for (Airport a : cell(i, j)) {
+                    double dx = a.getNsX() - x;
+                    double dy = a.getNsY() - y;
+                    double d2 = dx * dx + dy * dy;
+                    if (d2 <= bestD2) {
+                        bestD2 = d2;
+                        best = a;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /** Returns all airports within radius r of (x, y). */
+    List<Airport> within(double x, double y, double r) {
+        List<Airport> out = new ArrayList<>();
+        double r2 = r * r;
+        for (int i = cellOf(x - r), i1 = cellOf(x + r); i <= i1; i++) {
+            for (int j = cellOf(y - r), j1 = cellOf(y + r); j <= j1; j++) {
+                for (Airport a : cell(i, j)) {
+                    double dx = a.getNsX() - x;
+                    double dy = a.getNsY() - y;
+                    if (dx * dx + dy * dy <= r2) out.add(a);
+                }
+            }
+        }
+        return out;
+    }
+}
@@ -2,9 +2,12 @@ package gui.models;
 
 import java.awt.Graphics;
 
+import gui.render.Projection;
+
 /**
  * Abstract base class for drawable figures in the simulation.
- * Provides position, size, and a method to paint on a Graphics object.
+ * Provides position (world coordinates), size in pixels, and a method to
+ * paint on a Graphics object through a view's projection.
  */
 public abstract class Figure {
 
@@ -18,8 +21,8 @@ public abstract class Figure {
         this.width = width;
     }
 
-    /** Paints the figure using the given Graphics context. */
-    public abstract void paint(Graphics g);
+    /** Paints the figure using the given Graphics context and view projection. */
+    public abstract void paint(Graphics g, Projection p);
 
     public double getX() { return x; }
     public void setX(int x) { this.x = x; }
@@ -31,14 +34,12 @@ public abstract class Figure {
     public void setWidth(int width) { this.width = width; }
 
     /**
-     * Checks if a given point (px, py) is within the figure's bounds.
+     * Checks if a given view point (px, py) is within the figure's bounds as drawn by the projection.
      */
-    public boolean containsPoint(int px, int py) {
+    public boolean containsPoint(Projection p, int px, int py) {
         int half = width / 2;
-        int left = (int) this.x - half;
-        int right = (int) this.x + half;
-        int top = (int) this.y - half;
-        int bottom = (int) this.y + half;
-        return px >= left && px <= right && py >= top && py <= bottom;
+        int sx = (int) p.toScreenX(this.x);
+        int sy = (int) p.toScreenY(this.y);
+        return px >= sx - half && px <= sx + half && py >= sy - half && py <= sy + half;
     }
 }
@@ -0,0 +1,119 @@
+package gui.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hash indexes over the model's flights, maintained by SimulationModel on
+ * every add and remove:
+ *  - by (from, to, departure minute, duration) for O(1) duplicate checks,
+ *  - by route (from, to),
+ *  - by departure minute (one bucket per minute of the day),
+ *  - by scheduled airborne interval (see AirborneIndex).
+ * Keys are primitive longs built from encoded airport codes, so lookups
+ * never hash Strings or box keys. Not thread-safe: SimulationModel keeps one
+ * index per lock stripe and accesses each under its stripe lock.
+ */
+class FlightIndex {
+
+    static final int MINUTES_PER_DAY = 24 * 60;
+
+    /** Largest duration that fits the packed key (23 bits). */
+    static final int MAX_DURATION = ScheduleStore.MAX_DURATION;
+
+    private final LongHashMap<Airplane> byKey = new LongHashMap<>();
+    private final LongHashMap<List<Airplane>> byRoute = new LongHashMap<>();
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final List<Airplane>[] byMinute = new List[MINUTES_PER_DAY];
+    private final AirborneIndex airborne = new AirborneIndex();
+
+    /** Packs a flight identity into a long, in the ScheduleStore record layout. */
+    static long key(int fromId, int toId, int departure, int duration) {
+        return ScheduleStore.pack(fromId, toId, departure, duration);
+    }
+
+    static long key(Airplane f) {
+        return key(f.getFrom().getCodeId(), f.getTo().getCodeId(), f.getDepartureInMinutes(), f.getDuration());
+    }
+
+    private static long routeKey(int fromId, int toId) {
+        return ((long) fromId << 15) | toId;
+    }
+
+    /** Returns the flight with the given identity, or null. */
+    Airplane find(int fromId, int toId, int departure, int duration) {
+        return byKey.get(key(fromId, toId, departure, duration));
+    }
+
+    /**
+     * Indexes the flight; returns false, and indexes nothing, if a flight
+     * with the same identity is indexed, so every key maps to the one
+     * instance that owns it.
+     */
+    boolean add(Airplane f) {
+        if (byKey.putIfAbsent(key(f), f) != null) return false;
+        long route = routeKey(f.getFrom().getCodeId(), f.getTo().getCodeId());
+        List<Airplane> r = byRoute.get(route);
+        if (r == null) {
+            r = new ArrayList<>(2);
+            byRoute.put(route, r);
+        }
+        r.add(f);
+        int m = f.getDepartureInMinutes();
+        if (byMinute[m] == null) byMinute[m] = new ArrayList<>(2);
+        byMinute[m].add(f);
+        airborne.add(f);
+        return true;
+    }
+
+    /** Removes the flight; returns false if this instance was not indexed. */
+    boolean remove(Airplane f) {
+        if (!byKey.remove(key(f), f)) return false;
+        long route = routeKey(f.getFrom().getCodeId(), f.getTo().getCodeId());
+        List<Airplane> r = byRoute.get(route);
+        if (r != null && r.remove(f) && r.isEmpty()) byRoute.remove(route);
+        airborne.remove(f);
+        List<Airplane> b = byMinute[f.getDepartureInMinutes()];
+        if (b != null) b.remove(f);
+        return true;
+    }
+
+    /** Returns true if this very instance is indexed. */
+    boolean isIndexed(Airplane f) {
+        return byKey.get(key(f)) == f;
+    }
+
+    void clear() {
+        byKey.clear();
+        byRoute.clear();
+        Arrays.fill(byMinute, null);
+        airborne.clear();
+    }
+
+    /** Copy of the flights on a route. */
+    List<Airplane> route(int fromId, int toId) {
+        List<Airplane> r = byRoute.get(routeKey(fromId, toId));
+        return (r != null) ? new ArrayList<>(r) : new ArrayList<>();
+    }
+
+    /** Copy of the flights departing in [fromMinute, toMinute], in departure order. */
+    List<Airplane> departingBetween(int fromMinute, int toMinute) {
+        List<Airplane> out = new ArrayList<>();
+        int lo = Math.max(0, fromMinute);
+        int hi = Math.min(MINUTES_PER_DAY - 1, toMinute);
+        for (int m = lo; m <= hi; m++) {
+            if (byMinute[m] != null) out.addAll(byMinute[m]);
+        }
+        return out;
+    }
+
+    /** Adds the flights scheduled to be in the air at any time in [fromMinute, toMinute] to out. */
+    void airborneBetween(long fromMinute, long toMinute, List<Airplane> out) {
+        airborne.overlapping(fromMinute, toMinute, out);
+    }
+
+    int countAirborneAt(long minute) {
+        return airborne.countAirborneAt(minute);
+    }
+}
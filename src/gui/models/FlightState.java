@@ -0,0 +1,12 @@
+package gui.models;
+
+/**
+ * Display state of an airborne flight. Used by the renderer to pick the
+ * sprite color for each aircraft.
+ */
+public enum FlightState {
+    /** Departed at its scheduled time. */
+    ON_TIME,
+    /** Departed later than scheduled (e.g., held back by the separation rule). */
+    DELAYED
+}
@@ -0,0 +1,141 @@
+package gui.models;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Scheduled and actual times of every flight of a simulation run, in
+ * parallel primitive arrays indexed by flight id (the flight's index in the
+ * run's schedule). Actual times are minutes since the start of the run;
+ * NOT_YET marks a departure or arrival that has not happened. Written by
+ * the simulation thread; readers work on a copy().
+ */
+public final class FlightTimes {
+
+    /** Departure or arrival that has not happened (yet). */
+    public static final int NOT_YET = -1;
+
+    // arrays may be longer than size, so appending flights is amortized O(1)
+    private short[] from, to;   // encoded airport codes
+    private short[] scheduled;  // minute of the day
+    private int[] duration;
+    private int[] departed;
+    private int[] arrived;
+    private int size;
+
+    /** Times of the given flights, none departed. */
+    public FlightTimes(List<Airplane> flights) {
+        this(flights.size());
+        append(flights, 0);
+    }
+
+    private FlightTimes(int n) {
+        from = new short[n];
+        to = new short[n];
+        scheduled = new short[n];
+        duration = new int[n];
+        departed = new int[n];
+        arrived = new int[n];
+    }
+
+    /**
+     * Adds the flights from the given id on, none departed, e.g. flights
+     * appended to the schedule during the run.
+     *
+     * @param flights flights of the schedule, by id; the first firstId are already known
+     */
+    public void append(List<Airplane> flights, int firstId) {
+        int n = flights.size();
+        if (n > departed.length) {
+            int capacity = Math.max(n, departed.length + (departed.length >> 1));
+            from = Arrays.copyOf(from, capacity);
+            to = Arrays.copyOf(to, capacity);
+            scheduled = Arrays.copyOf(scheduled, capacity);
+            duration = Arrays.copyOf(duration, capacity);
+            departed = Arrays.copyOf(departed, capacity);
+            arrived = Arrays.copyOf(arrived, capacity);
+        }
+        for (int id = firstId; id < n; id++) {
+            Airplane f = flights.get(id);
+            from[id] = (short) f.getFrom().getCodeId();
+            to[id] = (short) f.getTo().getCodeId();
+            scheduled[id] = (short) f.getDepartureInMinutes();
+            duration[id] = f.getDuration();
+            departed[id] = NOT_YET;
+            arrived[id] = NOT_YET;
+        }
+        size = Math.max(size, n);
+    }
+
+    /** Forgets all actual times. */
+    public void reset() {
+        Arrays.fill(departed, 0, size, NOT_YET);
+        Arrays.fill(arrived, 0, size, NOT_YET);
+    }
+
+    public void departed(int id, long simTimeInMinutes) {
+        departed[id] = (int) simTimeInMinutes;
+    }
+
+    public void arrived(int id, long simTimeInMinutes) {
+        arrived[id] = (int) simTimeInMinutes;
+    }
+
+    /**
+     * Times for a new schedule of the same run (e.g. recompiled after flights
+     * were registered): flights of both keep their actual times.
+     *
+     * @param before flights of this schedule, by id
+     * @param after  flights of the new schedule, by id
+     */
+    public FlightTimes carryOver(List<Airplane> before, List<Airplane> after) {
+        Map<Airplane, Integer> flown = new IdentityHashMap<>();
+        for (int id = 0; id < size; id++) {
+            if (departed[id] != NOT_YET) flown.put(before.get(id), id);
+        }
+        FlightTimes next = new FlightTimes(after);
+        for (int id = 0; id < after.size() && !flown.isEmpty(); id++) {
+            Integer old = flown.remove(after.get(id));
+            if (old == null) continue;
+            next.departed[id] = departed[old];
+            next.arrived[id] = arrived[old];
+        }
+        return next;
+    }
+
+    /** A copy that later steps of the run do not change. */
+    public FlightTimes copy() {
+        FlightTimes c = new FlightTimes(size);
+        System.arraycopy(from, 0, c.from, 0, size);
+        System.arraycopy(to, 0, c.to, 0, size);
+        System.arraycopy(scheduled, 0, c.scheduled, 0, size);
+        System.arraycopy(duration, 0, c.duration, 0, size);
+        System.arraycopy(departed, 0, c.departed, 0, size);
+        System.arraycopy(arrived, 0, c.arrived, 0, size);
+        c.size = size;
+        return c;
+    }
+
+    public int size() { return size; }
+
+    public int getFromId(int id) { return from[id]; }
+    public int getToId(int id) { return to[id]; }
+    /** Scheduled departure, minute of the day. */
+    public int getScheduled(int id) { return scheduled[id]; }
+    public int getDuration(int id) { return duration[id]; }
+    /** Actual departure, minutes since the start of the run, or NOT_YET. */
+    public int getDeparted(int id) { return departed[id]; }
+    /**
+     * Actual arrival, minutes since the start of the run, or NOT_YET. Always
+     * the actual departure plus the duration, so a flight is exactly as late
+     * arriving as it was leaving.
+     */
+    public int getArrived(int id) { return arrived[id]; }
+
+    /** Minutes the flight left after its scheduled time, or NOT_YET. */
+    public int getDepartureDelay(int id) {
+        return departed[id] == NOT_YET ? NOT_YET : departed[id] - scheduled[id];
+    }
+}
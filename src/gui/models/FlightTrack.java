@@ -0,0 +1,39 @@
+package gui.models;
+
+/**
+ * Runtime state of an airborne flight. Allocated when the flight takes off
+ * and dropped when it is grounded again, so scheduled flights that are not
+ * in the air only carry their schedule fields.
+ */
+final class FlightTrack {
+
+    final long startSimTime;
+    long lastUpdateSimTime;
+
+    final double startX, startY, endX, endY; // world coordinates
+    double prevX, prevY; // position at the previous tick, for render interpolation
+    final double vx, vy;
+
+    final double dirX, dirY; // unit direction of travel, world coordinates
+    FlightState state;
+
+    FlightTrack(long startSimTime, double startX, double startY, double endX, double endY, int duration) {
+        this.startSimTime = startSimTime;
+        this.lastUpdateSimTime = startSimTime;
+        this.startX = startX;
+        this.startY = startY;
+        this.endX = endX;
+        this.endY = endY;
+        this.prevX = startX;
+        this.prevY = startY;
+        if (duration > 0) {
+            this.vx = (endX - startX) / (double) duration;
+            this.vy = (endY - startY) / (double) duration;
+        } else {
+            this.vx = this.vy = 0.0;
+        }
+        double len = Math.hypot(endX - startX, endY - startY);
+        this.dirX = (len > 0) ? (endX - startX) / len : 1.0;
+        this.dirY = (len > 0) ? (endY - startY) / len : 0.0;
+    }
+}
@@ -0,0 +1,129 @@
+package gui.models;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from primitive long keys to objects, so index
+ * lookups neither box keys nor allocate. Linear probing with tombstones;
+ * not thread-safe. The maps of a FlightIndex are guarded by the lock of
+ * the SimulationModel stripe that owns the index.
+ */
+class LongHashMap<V> {
+
+    private static final Object TOMBSTONE = new Object();
+
+    private long[] keys;
+    private Object[] values;   // null = free slot
+    private int size;          // live entries
+    private int used;          // live entries + tombstones
+
+    LongHashMap() {
+        this(16);
+    }
+
+    LongHashMap(int expected) {
+        int cap = 16;
+        while (cap < expected * 2) cap <<= 1;
+        keys = new long[cap];
+        values = new Object[cap];
+    }
+
+    private static int mix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        return (int) k;
+    }
+
+    private int slotOf(long key) {
+        int mask = keys.length - 1;
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            Object v = values[i];
+            if (v == null) return -1;
+            if (v != TOMBSTONE && keys[i] == key) return i;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        int i = slotOf(key);
+        return i < 0 ? null : (V) values[i];
+    }
+
+    boolean containsKey(long key) {
+        return slotOf(key) >= 0;
+    }
+
+    /** Associates the value with the key if absent; returns the existing value or null. */
+    @SuppressWarnings("unchecked")
+    V putIfAbsent(long key, V value) {
+        int i = slotOf(key);
+        if (i >= 0) return (V) values[i];
+        insert(key, value);
+        return null;
+    }
+
+    /** Associates the value with the key, replacing any existing one. */
+    void put(long key, V value) {
+        int i = slotOf(key);
+        if (i >= 0) {
+            values[i] = value;
+        } else {
+            insert(key, value);
+        }
+    }
+
+    private void insert(long key, Object value) {
+        if ((used + 1) * 4 > keys.length * 3) rehash(size + 1 > keys.length / 2 ? keys.length * 2 : keys.length);
+        int mask = keys.length - 1;
+        int i = mix(key) & mask;
+        while (values[i] != null && values[i] != TOMBSTONE) i = (i + 1) & mask;
+        if (values[i] == null) used++;
+        keys[i] = key;
+        values[i] = value;
+        size++;
+    }
+
+    /** Removes the key; returns the removed value or null. */
+    @SuppressWarnings("unchecked")
+    V remove(long key) {
+        int i = slotOf(key);
+        if (i < 0) return null;
+        V v = (V) values[i];
+        values[i] = TOMBSTONE;
+        size--;
+        return v;
+    }
+
+    /** Removes the key only if it is mapped to the given value. */
+    boolean remove(long key, Object value) {
+        int i = slotOf(key);
+        if (i < 0 || values[i] != value) return false;
+        values[i] = TOMBSTONE;
+        size--;
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+        used = 0;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        size = 0;
+        used = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            Object v = oldValues[i];
+            if (v != null && v != TOMBSTONE) insert(oldKeys[i], v);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package gui.models;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Typed description of one model change: the airports and flights added,
+ * removed or updated between two model versions. A batch of mutations is
+ * reported as a single delta; an entity added and removed within the same
+ * batch does not appear at all. Entities are never changed in place: an
+ * updated flight is a new instance that replaced the one listed before.
+ */
+public final class ModelDelta {
+
+    private final long fromVersion;
+    private final long toVersion;
+    private final List<Airport> addedAirports;
+    private final List<Airport> removedAirports;
+    private final List<Airplane> addedFlights;
+    private final List<Airplane> removedFlights;
+    private final List<Airplane> updatedFlights;
+    private final List<Airplane> replacedFlights;
+
+    private ModelDelta(long fromVersion, long toVersion,
+                       List<Airport> addedAirports, List<Airport> removedAirports,
+                       List<Airplane> addedFlights, List<Airplane> removedFlights,
+                       List<Airplane> updatedFlights, List<Airplane> replacedFlights) {
+        this.fromVersion = fromVersion;
+        this.toVersion = toVersion;
+        this.addedAirports = Collections.unmodifiableList(addedAirports);
+        this.removedAirports = Collections.unmodifiableList(removedAirports);
+        this.addedFlights = Collections.unmodifiableList(addedFlights);
+        this.removedFlights = Collections.unmodifiableList(removedFlights);
+        this.updatedFlights = Collections.unmodifiableList(updatedFlights);
+        this.replacedFlights = Collections.unmodifiableList(replacedFlights);
+    }
+
+    /** Model version before the change. */
+    public long getFromVersion() { return fromVersion; }
+    /** Model version after the change. */
+    public long getToVersion() { return toVersion; }
+
+    public List<Airport> getAddedAirports() { return addedAirports; }
+    public List<Airport> getRemovedAirports() { return removedAirports; }
+    public List<Airplane> getAddedFlights() { return addedFlights; }
+    public List<Airplane> getRemovedFlights() { return removedFlights; }
+    /** New instances of the updated flights. */
+    public List<Airplane> getUpdatedFlights() { return updatedFlights; }
+    /** The instances the updated flights replaced, in the order of getUpdatedFlights. */
+    public List<Airplane> getReplacedFlights() { return replacedFlights; }
+
+    /** Returns true if nothing changed. */
+    public boolean isEmpty() {
+        return addedAirports.isEmpty() && removedAirports.isEmpty()
+                && addedFlights.isEmpty() && removedFlights.isEmpty() && updatedFlights.isEmpty();
+    }
+
+    /** Returns true if the change only appended entities (nothing removed or updated). */
+    public boolean isAppendOnly() {
+        return removedAirports.isEmpty() && removedFlights.isEmpty() && updatedFlights.isEmpty();
+    }
+
+    /** Returns true if any airport was added or removed. */
+    public boolean touchesAirports() {
+        return !addedAirports.isEmpty() || !removedAirports.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ModelDelta[v%d->v%d airports +%d/-%d flights +%d/-%d/~%d]",
+                fromVersion, toVersion, addedAirports.size(), removedAirports.size(),
+                addedFlights.size(), removedFlights.size(), updatedFlights.size());
+    }
+
+    /**
+     * Collects the changes of one batch. Not thread-safe: each belongs to one
+     * SimulationModel batch and is only used by the thread running it, which
+     * builds the delta at commit under the model monitor.
+     */
+    static final class Builder {
+        private final List<Airport> addedAirports = new ArrayList<>();
+        private final List<Airport> removedAirports = new ArrayList<>();
+        private final List<Airplane> addedFlights = new ArrayList<>();
+        private final List<Airplane> removedFlights = new ArrayList<>();
+        private final List<Airplane> updatedFlights = new ArrayList<>();
+
+        // built on the first removal, so append-only batches never hash their entities
+        private Map<Object, Boolean> addedInBatch;
+        // updated flight -> the instance it replaced, as listed before the batch
+        private Map<Airplane, Airplane> replaced;
+
+        void airportAdded(Airport a) { added(addedAirports, a); }
+        void airportRemoved(Airport a) { removed(addedAirports, removedAirports, a); }
+        void flightAdded(Airplane f) { added(addedFlights, f); }
+
+        void flightRemoved(Airplane f) {
+            // removing an updated flight removes the instance it replaced
+            Airplane original = replaced == null ? null : replaced.remove(f);
+            if (original != null) removedFlights.add(original);
+            else removed(addedFlights, removedFlights, f);
+        }
+
+        /** The flight was replaced by a new instance; reported as an update of the old one. */
+        void flightReplaced(Airplane old, Airplane f) {
+            // replacing a flight added in the batch just adds the new one
+            if (cancelAdd(addedFlights, old)) {
+                added(addedFlights, f);
+                return;
+            }
+            if (replaced == null) replaced = new IdentityHashMap<>();
+            Airplane original = replaced.remove(old);
+            replaced.put(f, original != null ? original : old);
+            updatedFlights.add(f);
+        }
+
+        private <T> void added(List<T> added, T item) {
+            added.add(item);
+            if (addedInBatch != null) addedInBatch.put(item, Boolean.TRUE);
+        }
+
+        // an entity added earlier in the same batch cancels out; anything else is a removal
+        private <T> void removed(List<T> added, List<T> removed, T item) {
+            if (!cancelAdd(added, item)) removed.add(item);
+        }
+
+        // drops the item from added if it was added in the batch; returns true then
+        private <T> boolean cancelAdd(List<T> added, T item) {
+            if (addedInBatch == null) {
+                addedInBatch = new IdentityHashMap<>();
+                for (Airport a : addedAirports) addedInBatch.put(a, Boolean.TRUE);
+                for (Airplane f : addedFlights) addedInBatch.put(f, Boolean.TRUE);
+            }
+            if (addedInBatch.remove(item) != null) {
+                for (int i = added.size() - 1; i >= 0; i--) {
+                    if (added.get(i) == item) {
+                        added.remove(i);
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        boolean isEmpty() {
+            return addedAirports.isEmpty() && removedAirports.isEmpty()
+                    && addedFlights.isEmpty() && removedFlights.isEmpty() && updatedFlights.isEmpty();
+        }
+
+        /**
+         * Builds the delta. Entities added and then removed in the batch cancel out
+         * (removed and re-added ones are reported as both); a flight updated
+         * several times is reported once, by its last instance.
+         */
+        ModelDelta build(long fromVersion, long toVersion) {
+            List<Airplane> updatedF = new ArrayList<>();
+            List<Airplane> replacedF = new ArrayList<>();
+            Map<Airplane, Boolean> seen = new IdentityHashMap<>();
+            for (Airplane f : updatedFlights) {
+                // instances replaced again or removed later in the batch have no entry
+                Airplane original = replaced.get(f);
+                if (original != null && seen.put(f, Boolean.TRUE) == null) {
+                    updatedF.add(f);
+                    replacedF.add(original);
+                }
+            }
+            return new ModelDelta(fromVersion, toVersion, new ArrayList<>(addedAirports), new ArrayList<>(removedAirports),
+                    new ArrayList<>(addedFlights), new ArrayList<>(removedFlights), updatedF, replacedF);
+        }
+    }
+}
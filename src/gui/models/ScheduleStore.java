@@ -0,0 +1,126 @@
+package gui.models;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Packed flight rows: one long per flight, with no per-flight objects. A
+ * record holds
+ * from (15 bits) | to (15 bits) | departure minute (11 bits) | duration (23 bits),
+ * where airports are encoded codes (see {@link AirportCodes}). This is the
+ * same layout the model uses to index flights.
+ *
+ * Used on the bulk paths only: parsed CSV rows, schedule files and the
+ * input of RegistrationService's bulk registration and sync. Registered
+ * flights are still one Airplane each in the model, its indexes and the
+ * engine (about 100 bytes per flight, see ScheduleMemoryBenchmark), so a
+ * store does not make a running schedule smaller; records become Airplanes
+ * when they are registered (see {@link #materialize(int, SimulationModel, int)}).
+ * Not thread-safe; a store that is no longer written may be read concurrently.
+ */
+public final class ScheduleStore {
+
+    /** Largest duration that fits a record (23 bits). */
+    public static final int MAX_DURATION = (1 << 23) - 1;
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private long[] records;
+    private int size;
+
+    public ScheduleStore() {
+        this(16);
+    }
+
+    public ScheduleStore(int initialCapacity) {
+        records = new long[Math.max(1, initialCapacity)];
+    }
+
+    /** Packs a flight into a record. Arguments are not range checked. */
+    public static long pack(int fromId, int toId, int departure, int duration) {
+        return ((long) fromId << 49) | ((long) toId << 34) | ((long) departure << 23) | (duration & MAX_DURATION);
+    }
+
+    public static int fromIdOf(long record) { return (int) (record >>> 49) & (AirportCodes.TABLE_SIZE - 1); }
+    public static int toIdOf(long record) { return (int) (record >>> 34) & (AirportCodes.TABLE_SIZE - 1); }
+    public static int departureOf(long record) { return (int) (record >>> 23) & 0x7FF; }
+    public static int durationOf(long record) { return (int) record & MAX_DURATION; }
+
+    /** Builds a store from registered flights, in the given order. */
+    public static ScheduleStore of(List<Airplane> flights) {
+        ScheduleStore store = new ScheduleStore(flights.size());
+        for (Airplane f : flights) {
+            store.add(f.getFrom().getCodeId(), f.getTo().getCodeId(), f.getDepartureInMinutes(), f.getDuration());
+        }
+        return store;
+    }
+
+    /**
+     * Appends a flight.
+     *
+     * @return index of the new record
+     * @throws IllegalArgumentException if a field is out of range
+     */
+    public int add(int fromId, int toId, int departure, int duration) {
+        if (!AirportCodes.isValid(fromId) || !AirportCodes.isValid(toId))
+            throw new IllegalArgumentException("invalid airport code id");
+        if (departure < 0 || departure >= MINUTES_PER_DAY)
+            throw new IllegalArgumentException("departure out of range: " + departure);
+        if (duration <= 0 || duration > MAX_DURATION)
+            throw new IllegalArgumentException("duration out of range: " + duration);
+        if (size == records.length) records = Arrays.copyOf(records, size * 2);
+        records[size] = pack(fromId, toId, departure, duration);
+        return size++;
+    }
+
+    public int size() { return size; }
+
+    /**
+     * Changes the departure minute of a record.
+     *
+     * @throws IllegalArgumentException if departure is not a minute of the day
+     */
+    public void setDeparture(int i, int departure) {
+        checkIndex(i);
+        if (departure < 0 || departure >= MINUTES_PER_DAY)
+            throw new IllegalArgumentException("departure out of range: " + departure);
+        long r = records[i];
+        records[i] = pack(fromIdOf(r), toIdOf(r), departure, durationOf(r));
+    }
+
+    public long getRecord(int i) {
+        checkIndex(i);
+        return records[i];
+    }
+
+    public int getFromId(int i) { return fromIdOf(getRecord(i)); }
+    public int getToId(int i) { return toIdOf(getRecord(i)); }
+    public int getDeparture(int i) { return departureOf(getRecord(i)); }
+    public int getDuration(int i) { return durationOf(getRecord(i)); }
+
+    /** Releases unused capacity. */
+    public void trimToSize() {
+        if (records.length > size) records = Arrays.copyOf(records, Math.max(1, size));
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Creates the Airplane for a record, resolving its airports in the model.
+     *
+     * @return the airplane, or null if one of its airports is not registered
+     */
+    public Airplane materialize(int i, SimulationModel model, int width) {
+        long r = getRecord(i);
+        Airport from = model.getAirport(fromIdOf(r));
+        Airport to = model.getAirport(toIdOf(r));
+        if (from == null || to == null) return null;
+        return new Airplane(width, from, to, departureOf(r), durationOf(r));
+    }
+
+    private void checkIndex(int i) {
+        if (i < 0 || i >= size) throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+    }
+}
@@ -1,74 +1,609 @@
 package gui.models;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 /**
- * Notifies registered ModelListeners when the simulation state changes.
+ * Holds airports and flights and notifies registered ModelListeners when the simulation state changes.
+ *
+ * Readers work on immutable, versioned {@link Snapshot}s that are replaced atomically on every
+ * mutation, so reading never takes the model lock and never copies. Appends reuse the backing
+ * arrays (an older snapshot only ever reads the slots below its own size), removals copy.
+ *
+ * Writers are striped: airports live in a lock-free code table and a concurrent spatial grid,
+ * flights in one index per lock stripe, chosen by departure airport. Only publishing a new
+ * snapshot is serialized (on the model monitor), so registrations into different airports
+ * run in parallel. Lock order: a stripe lock may be taken while holding the monitor, never
+ * the other way round.
+ *
+ * Snapshots, airport lookups and spatial queries never lock. The flight index queries
+ * (findFlight, by route, by departure minute, airborne) are the exception: the stripe indexes
+ * are mutable, so these take the stripe lock for the lookup or copy and can briefly delay a
+ * writer on the same stripe. Range queries lock one stripe at a time, never all at once.
+ *
+ * Mutations can be grouped with {@link #batch(Consumer)}: a single snapshot is published and
+ * listeners receive one {@link ModelDelta}. The single-entity methods are batches of one.
  */
 public class SimulationModel {
 
     /** Listener interface for model change notifications. */
     public interface ModelListener {
-        void modelChanged();
+        /** Called once per committed batch, on the writer's thread. */
+        void modelChanged(ModelDelta delta);
     }
 
-    private final Map<String, Airport> airports = new HashMap<>(); // key = uppercase code
-    private final List<Airplane> flights = new ArrayList<>();
+    /** Mutations available inside {@link SimulationModel#batch(Consumer)}. */
+    public interface Batch {
+        void addAirport(Airport a);
+        boolean removeAirport(String code);
+        /**
+         * Adds the flight unless one with the same route, departure time and
+         * duration exists; returns false, and changes nothing, then.
+         */
+        boolean addFlight(Airplane f);
+        /** Same as addFlight. */
+        boolean addFlightIfAbsent(Airplane f);
+        boolean removeFlight(Airplane f);
+        /**
+         * Replaces a registered flight by a new instance with the changed
+         * route, departure or duration; the delta reports it as updated.
+         * Returns false, and changes nothing, if the flight is not registered
+         * or another one has the replacement's route, departure and duration.
+         */
+        boolean updateFlight(Airplane f, Airplane replacement);
+        void clearAll();
+    }
+
+    /** Immutable view of the model at one version. */
+    public static final class Snapshot {
+        private final long version;
+        private final long rewriteVersion;
+        private final List<Airport> airports;
+        private final List<Airplane> flights;
+
+        private Snapshot(long version, long rewriteVersion, Airport[] airports, int airportCount,
+                Airplane[] flights, int flightCount) {
+            this.version = version;
+            this.rewriteVersion = rewriteVersion;
+            this.airports = new ArrayView<>(airports, airportCount);
+            this.flights = new ArrayView<>(flights, flightCount);
+        }
+
+        /** Version of the model this snapshot was taken at; increases on every mutation. */
+        public long getVersion() { return version; }
+        /**
+         * Version of the last change that did more than append flights: an
+         * airport added or removed, or a flight removed or updated. A snapshot
+         * whose rewrite version is at most an older snapshot's version has the
+         * same airports and extends its flight list, so flight indexes stay valid.
+         */
+        public long getRewriteVersion() { return rewriteVersion; }
+        /** Unmodifiable list of airports, in registration order. */
+        public List<Airport> getAirports() { return airports; }
+        /** Unmodifiable list of flights, in registration order. */
+        public List<Airplane> getFlights() { return flights; }
+    }
+
+    /** Read-only list over the first size slots of a shared array. */
+    private static final class ArrayView<T> extends AbstractList<T> implements RandomAccess {
+        private final T[] items;
+        private final int size;
+
+        ArrayView(T[] items, int size) {
+            this.items = items;
+            this.size = size;
+        }
+
+        @Override
+        public T get(int index) {
+            Objects.checkIndex(index, size);
+            return items[index];
+        }
+
+        @Override
+        public int size() { return size; }
+    }
+
+    /** Number of lock stripes for flights; a flight belongs to the stripe of its departure airport. */
+    private static final int STRIPES = 32;
+
+    // Dense table indexed by encoded airport code (see AirportCodes); lock-free reads
+    private final AtomicReferenceArray<Airport> airportsByCode = new AtomicReferenceArray<>(AirportCodes.TABLE_SIZE);
+    private final AirportGrid airportGrid = new AirportGrid();
+
+    // Flight indexes, one per stripe, each guarded by its stripe lock
+    private final FlightIndex[] flightIndexes = new FlightIndex[STRIPES];
+    private final ReentrantLock[] stripeLocks = new ReentrantLock[STRIPES];
+    private final AtomicLong flightRemovals = new AtomicLong();
+
+    // Backing arrays, written only under the model monitor
+    private Airport[] airports = new Airport[16];
+    private int airportCount = 0;
+    private Airplane[] flights = new Airplane[16];
+    private int flightCount = 0;
+
+    private volatile Snapshot snapshot = new Snapshot(0L, 0L, airports, 0, flights, 0);
     private final List<ModelListener> listeners = new ArrayList<>();
 
+    // Batch being applied by the current thread, or null
+    private final ThreadLocal<BatchImpl> openBatch = new ThreadLocal<>();
+
+    public SimulationModel() {
+        for (int i = 0; i < STRIPES; i++) {
+            flightIndexes[i] = new FlightIndex();
+            stripeLocks[i] = new ReentrantLock();
+        }
+    }
+
+    private static int stripeOf(Airport from) {
+        return from.getCodeId() & (STRIPES - 1);
+    }
+
+    /**
+     * Applies all mutations done by the work as one transaction, with a single
+     * published snapshot and a single change event. Indexes are updated as the
+     * work runs, under the lock stripes of the touched departure airports, so
+     * batches and single operations on different airports proceed in parallel;
+     * the backing lists are only changed at commit, under the model monitor.
+     * Calls nested in a running batch (on the same thread) join it.
+     * If the work throws, mutations applied so far are kept and reported.
+     *
+     * @return the committed delta (empty for nested calls, which report through the outer batch)
+     */
+    public ModelDelta batch(Consumer<Batch> work) {
+        BatchImpl open = openBatch.get();
+        if (open != null) {
+            work.accept(open);
+            long v = snapshot.version;
+            return new ModelDelta.Builder().build(v, v);
+        }
+        BatchImpl b = new BatchImpl();
+        openBatch.set(b);
+        ModelDelta delta;
+        try {
+            work.accept(b);
+        } finally {
+            openBatch.remove();
+            delta = b.commit();
+        }
+        return delta;
+    }
+
+    private final class BatchImpl implements Batch {
+        final ModelDelta.Builder changes = new ModelDelta.Builder();
+        boolean dirty;     // backing arrays change, even if the changes cancel out
+        boolean rewrites;  // more than flight appends (see Snapshot#getRewriteVersion)
+
+        // changes to the backing arrays, applied at commit
+        final List<Airport> airportAdds = new ArrayList<>(2);
+        final Map<Airport, Boolean> airportRemoves = new IdentityHashMap<>(4);
+        final List<Airplane> flightAdds = new ArrayList<>(2);
+        final Map<Airplane, Boolean> flightRemoves = new IdentityHashMap<>(4);
+
+        // flight removals by any writer when the batch started, and by this batch
+        final long removalsAtStart = flightRemovals.get();
+        long ownRemovals;
+
+        @Override
+        public void addAirport(Airport a) {
+            if (a == null) return;
+            Airport previous = airportsByCode.getAndSet(a.getCodeId(), a);
+            if (previous != null) {
+                airportGrid.remove(previous);
+                unlist(airportAdds, airportRemoves, previous);
+                changes.airportRemoved(previous);
+            }
+            airportGrid.add(a);
+            airportAdds.add(a);
+            changes.airportAdded(a);
+            dirty = true;
+            rewrites = true;
+        }
+
+        @Override
+        public boolean removeAirport(String code) {
+            int id = AirportCodes.encode(code);
+            if (id == AirportCodes.INVALID) return false;
+            Airport removed = airportsByCode.getAndSet(id, null);
+            if (removed == null) return false;
+            airportGrid.remove(removed);
+            unlist(airportAdds, airportRemoves, removed);
+            changes.airportRemoved(removed);
+            dirty = true;
+            rewrites = true;
+            return true;
+        }
+
+        @Override
+        public boolean addFlight(Airplane f) {
+            if (f == null) return false;
+            int stripe = stripeOf(f.getFrom());
+            stripeLocks[stripe].lock();
+            try {
+                if (!flightIndexes[stripe].add(f)) return false;
+            } finally {
+                stripeLocks[stripe].unlock();
+            }
+            listFlight(f);
+            return true;
+        }
+
+        @Override
+        public boolean addFlightIfAbsent(Airplane f) {
+            return addFlight(f);
+        }
+
+        private void listFlight(Airplane f) {
+            flightAdds.add(f);
+            changes.flightAdded(f);
+            dirty = true;
+        }
+
+        @Override
+        public boolean removeFlight(Airplane f) {
+            if (f == null) return false;
+            // counted before the index changes, so that concurrent commits re-check their adds
+            flightRemovals.incrementAndGet();
+            ownRemovals++;
+            int stripe = stripeOf(f.getFrom());
+            stripeLocks[stripe].lock();
+            try {
+                if (!flightIndexes[stripe].remove(f)) return false;
+            } finally {
+                stripeLocks[stripe].unlock();
+            }
+            if (unlist(flightAdds, flightRemoves, f)) rewrites = true;
+            changes.flightRemoved(f);
+            dirty = true;
+            return true;
+        }
+
+        @Override
+        public boolean updateFlight(Airplane f, Airplane replacement) {
+            if (f == null || replacement == null) return false;
+            flightRemovals.incrementAndGet();
+            ownRemovals++;
+            // both stripes at once (in stripe order), so that lookups always find one of the two
+            int from = stripeOf(f.getFrom()), to = stripeOf(replacement.getFrom());
+            ReentrantLock first = stripeLocks[Math.min(from, to)], second = stripeLocks[Math.max(from, to)];
+            first.lock();
+            second.lock();
+            try {
+                if (!flightIndexes[from].remove(f)) return false;
+                if (!flightIndexes[to].add(replacement)) {
+                    flightIndexes[from].add(f);
+                    return false;
+                }
+            } finally {
+                second.unlock();
+                first.unlock();
+            }
+            // published snapshots keep the old instance; the new one is appended
+            if (unlist(flightAdds, flightRemoves, f)) rewrites = true;
+            flightAdds.add(replacement);
+            changes.flightReplaced(f, replacement);
+            dirty = true;
+            return true;
+        }
+
+        @Override
+        public void clearAll() {
+            // takes effect immediately, so it needs the monitor and every stripe
+            synchronized (SimulationModel.this) {
+                for (ReentrantLock l : stripeLocks) l.lock();
+                try {
+                    flightRemovals.incrementAndGet();
+                    ownRemovals++;
+                    for (FlightIndex index : flightIndexes) index.clear();
+                } finally {
+                    for (ReentrantLock l : stripeLocks) l.unlock();
+                }
+                // entities this batch already removed are reported once
+                for (int i = 0; i < airportCount; i++) {
+                    if (!airportRemoves.containsKey(airports[i])) changes.airportRemoved(airports[i]);
+                }
+                for (Airport a : airportAdds) changes.airportRemoved(a);
+                for (int i = 0; i < flightCount; i++) {
+                    if (!flightRemoves.containsKey(flights[i])) changes.flightRemoved(flights[i]);
+                }
+                for (Airplane f : flightAdds) changes.flightRemoved(f);
+                for (int id = 0; id < AirportCodes.TABLE_SIZE; id++) airportsByCode.set(id, null);
+                airportGrid.clear();
+                airports = new Airport[16];
+                airportCount = 0;
+                flights = new Airplane[16];
+                flightCount = 0;
+                airportAdds.clear();
+                airportRemoves.clear();
+                flightAdds.clear();
+                flightRemoves.clear();
+                dirty = true;
+                rewrites = true;
+            }
+        }
+
+        /**
+         * Cancels a pending add of the item, or records its removal from the
+         * backing array; returns true in the latter case.
+         */
+        private <T> boolean unlist(List<T> adds, Map<T, Boolean> removes, T item) {
+            for (int i = adds.size() - 1; i >= 0; i--) {
+                if (adds.get(i) == item) {
+                    adds.remove(i);
+                    return false;
+                }
+            }
+            removes.put(item, Boolean.TRUE);
+            return true;
+        }
+
+        /** Applies the array changes, publishes one snapshot and fires one delta. */
+        ModelDelta commit() {
+            synchronized (SimulationModel.this) {
+                long from = snapshot.version;
+                if (!dirty) return changes.build(from, from);
+
+                if (!airportRemoves.isEmpty()) {
+                    // copy, so that published snapshots keep their contents
+                    Airport[] copy = Arrays.copyOf(airports, airports.length);
+                    airportCount = retain(copy, airportCount, airportRemoves);
+                    airports = copy;
+                }
+                for (Airport a : airportAdds) {
+                    // skip airports replaced or removed by another writer in the meantime
+                    if (airportsByCode.get(a.getCodeId()) != a) {
+                        changes.airportRemoved(a);
+                        continue;
+                    }
+                    if (airportCount == airports.length) airports = Arrays.copyOf(airports, airportCount * 2);
+                    airports[airportCount++] = a;
+                }
+
+                if (!flightRemoves.isEmpty()) {
+                    Airplane[] copy = Arrays.copyOf(flights, flights.length);
+                    flightCount = retain(copy, flightCount, flightRemoves);
+                    flights = copy;
+                }
+                // skip flights removed (or cleared) by another writer in the meantime
+                boolean removedByOthers = flightRemovals.get() - removalsAtStart != ownRemovals;
+                for (Airplane f : flightAdds) {
+                    if (removedByOthers && !isIndexed(f)) {
+                        changes.flightRemoved(f);
+                        continue;
+                    }
+                    if (flightCount == flights.length) flights = Arrays.copyOf(flights, flightCount * 2);
+                    flights[flightCount++] = f;
+                }
+
+                publish(rewrites);
+                ModelDelta delta = changes.build(from, snapshot.version);
+                fireChanged(delta);
+                return delta;
+            }
+        }
+    }
+
+    private boolean isIndexed(Airplane f) {
+        int stripe = stripeOf(f.getFrom());
+        stripeLocks[stripe].lock();
+        try {
+            return flightIndexes[stripe].isIndexed(f);
+        } finally {
+            stripeLocks[stripe].unlock();
+        }
+    }
+
+    /** Compacts the first size slots, dropping the excluded items; returns the new size. */
+    private static <T> int retain(T[] items, int size, Map<T, Boolean> exclude) {
+        int k = 0;
+        for (int i = 0; i < size; i++) {
+            if (!exclude.containsKey(items[i])) items[k++] = items[i];
+        }
+        Arrays.fill(items, k, size, null);
+        return k;
+    }
+
+    /**
+     * Stable counting sort by departure minute. Each stripe reports in
+     * departure order, so this merges the stripes in O(n + minutes).
+     */
+    private static List<Airplane> sortByDeparture(List<Airplane> flights) {
+        int[] start = new int[24 * 60 + 1];
+        for (Airplane f : flights) start[f.getDepartureInMinutes() + 1]++;
+        for (int m = 0; m < 24 * 60; m++) start[m + 1] += start[m];
+        Airplane[] sorted = new Airplane[flights.size()];
+        for (Airplane f : flights) sorted[start[f.getDepartureInMinutes()]++] = f;
+        return new ArrayList<>(Arrays.asList(sorted));
+    }
+
     /** Adds an airport to the model and notifies listeners. */
-    public synchronized void addAirport(Airport a) {
-        if (a == null) return;
-        airports.put(a.getCode(), a);
-        fireChanged();
+    public void addAirport(Airport a) {
+        batch(b -> b.addAirport(a));
     }
 
     /** Removes an airport by code and notifies listeners. */
-    public synchronized boolean removeAirport(String code) {
-        if (code == null) return false;
-        Airport removed = airports.remove(code.trim().toUpperCase());
-        if (removed != null) {
-            fireChanged();
-            return true;
+    public boolean removeAirport(String code) {
+        boolean[] removed = { false };
+        batch(b -> removed[0] = b.removeAirport(code));
+        return removed[0];
+    }
+
+    /** Returns an airport by code (case and surrounding whitespace ignored), or null if not found. */
+    public Airport getAirport(String code) {
+        int id = AirportCodes.encode(code);
+        return (id == AirportCodes.INVALID) ? null : airportsByCode.get(id);
+    }
+
+    /** Returns an airport by encoded code (see AirportCodes), or null if not found. */
+    public Airport getAirport(int codeId) {
+        return (codeId >= 0 && codeId < AirportCodes.TABLE_SIZE) ? airportsByCode.get(codeId) : null;
+    }
+
+    /**
+     * Returns an airport at the given world coordinates, compared at the
+     * 3-decimal resolution of the CSV format, or null.
+     */
+    public Airport getAirportAt(double nsX, double nsY) {
+        return airportGrid.findAt(nsX, nsY);
+    }
+
+    /** Returns the airport closest to the given world coordinates within the radius, or null. */
+    public Airport findAirportNear(double nsX, double nsY, double radius) {
+        return airportGrid.nearest(nsX, nsY, radius);
+    }
+
+    /** Returns all airports within the radius (world units) of the given world coordinates. */
+    public List<Airport> getAirportsWithin(double nsX, double nsY, double radius) {
+        return airportGrid.within(nsX, nsY, radius);
+    }
+
+    /** Returns the current immutable snapshot of the model. */
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /** Returns the current model version. */
+    public long getVersion() {
+        return snapshot.version;
+    }
+
+    /** Returns true if the model was modified after the given version was observed. */
+    public boolean hasChangedSince(long version) {
+        return snapshot.version != version;
+    }
+
+    /** Returns an unmodifiable snapshot of all airports. */
+    public Collection<Airport> getAirports() {
+        return snapshot.airports;
+    }
+
+    /**
+     * Adds a flight to the model, unless one with the same route, departure
+     * time and duration exists.
+     *
+     * @return true if the flight was added, false if it is a duplicate
+     */
+    public boolean addFlight(Airplane f) {
+        boolean[] added = { false };
+        batch(b -> added[0] = b.addFlight(f));
+        return added[0];
+    }
+
+    /**
+     * Adds a flight unless one with the same route, departure time and duration exists.
+     * The check and the insert are atomic.
+     *
+     * @return true if the flight was added, false if it is a duplicate
+     */
+    public boolean addFlightIfAbsent(Airplane f) {
+        boolean[] added = { false };
+        batch(b -> added[0] = b.addFlightIfAbsent(f));
+        return added[0];
+    }
+
+    /**
+     * Returns the flight with the given route, departure time and duration, or null (O(1)).
+     * Takes the departure airport's stripe lock for the lookup.
+     *
+     * @param fromId    encoded departure airport code
+     * @param toId      encoded destination airport code
+     * @param departure departure in minutes from 00:00
+     * @param duration  duration in minutes
+     */
+    public Airplane findFlight(int fromId, int toId, int departure, int duration) {
+        int stripe = fromId & (STRIPES - 1);
+        stripeLocks[stripe].lock();
+        try {
+            return flightIndexes[stripe].find(fromId, toId, departure, duration);
+        } finally {
+            stripeLocks[stripe].unlock();
         }
-        return false;
     }
 
-    /** Returns an airport by code, or null if not found. */
-    public synchronized Airport getAirport(String code) {
-        if (code == null) return null;
-        return airports.get(code.trim().toUpperCase());
+    /** Returns the flights on a route, in registration order. */
+    public List<Airplane> getFlightsOnRoute(String from, String to) {
+        int fromId = AirportCodes.encode(from);
+        int toId = AirportCodes.encode(to);
+        if (fromId == AirportCodes.INVALID || toId == AirportCodes.INVALID) return new ArrayList<>();
+        int stripe = fromId & (STRIPES - 1);
+        stripeLocks[stripe].lock();
+        try {
+            return flightIndexes[stripe].route(fromId, toId);
+        } finally {
+            stripeLocks[stripe].unlock();
+        }
     }
 
-    /** Returns a snapshot of all airports. */
-    public synchronized Collection<Airport> getAirports() {
-        return new ArrayList<>(airports.values());
+    /** Returns the flights departing between the two times (minutes from 00:00, inclusive), in departure order. */
+    public List<Airplane> getFlightsDepartingBetween(int fromMinute, int toMinute) {
+        List<Airplane> out = new ArrayList<>();
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            stripeLocks[stripe].lock();
+            try {
+                out.addAll(flightIndexes[stripe].departingBetween(fromMinute, toMinute));
+            } finally {
+                stripeLocks[stripe].unlock();
+            }
+        }
+        return sortByDeparture(out);
     }
 
-    /** Adds a flight to the model and registers it with its source airport. */
-    public synchronized void addFlight(Airplane f) {
-        if (f == null) return;
-        flights.add(f);
-        Airport src = airports.get(f.getFrom().getCode());
-        if (src != null) src.addFlight(f);
-        fireChanged();
+    /**
+     * Returns the flights scheduled to be in the air at the given minute
+     * (departure <= minute < departure + duration), in departure order.
+     * Minutes count from 00:00 of the first day and may exceed one day.
+     */
+    public List<Airplane> getFlightsAirborneAt(long minute) {
+        return getFlightsAirborneBetween(minute, minute);
     }
 
-    /** Returns a snapshot of all flights. */
-    public synchronized List<Airplane> getFlights() {
-        return new ArrayList<>(flights);
+    /** Returns the flights scheduled to be in the air at any time in [fromMinute, toMinute], in departure order. */
+    public List<Airplane> getFlightsAirborneBetween(long fromMinute, long toMinute) {
+        List<Airplane> out = new ArrayList<>();
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            stripeLocks[stripe].lock();
+            try {
+                flightIndexes[stripe].airborneBetween(fromMinute, toMinute, out);
+            } finally {
+                stripeLocks[stripe].unlock();
+            }
+        }
+        return sortByDeparture(out);
     }
 
-    /** Removes a flight and updates its source airport. */
-    public synchronized boolean removeFlight(Airplane f) {
-        if (f == null) return false;
-        boolean removed = flights.remove(f);
-        if (removed) {
-            Airport src = airports.get(f.getFrom().getCode());
-            if (src != null) src.removeFlight(f);
-            fireChanged();
+    /** Returns the number of flights scheduled to be in the air at the given minute. */
+    public int countFlightsAirborneAt(long minute) {
+        int n = 0;
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            stripeLocks[stripe].lock();
+            try {
+                n += flightIndexes[stripe].countAirborneAt(minute);
+            } finally {
+                stripeLocks[stripe].unlock();
+            }
         }
-        return removed;
+        return n;
+    }
+
+    /** Returns an unmodifiable snapshot of all flights. */
+    public List<Airplane> getFlights() {
+        return snapshot.flights;
+    }
+
+    /** Removes a flight from the model. */
+    public boolean removeFlight(Airplane f) {
+        boolean[] removed = { false };
+        batch(b -> removed[0] = b.removeFlight(f));
+        return removed[0];
+    }
+
+    /** Publishes a new snapshot of the backing arrays. Caller holds the model monitor. */
+    private void publish(boolean rewrites) {
+        long v = snapshot.version + 1;
+        snapshot = new Snapshot(v, rewrites ? v : snapshot.rewriteVersion, airports, airportCount, flights, flightCount);
     }
 
     // ---- listener management ----
@@ -88,14 +623,14 @@ public class SimulationModel {
     }
 
     /** Notifies all registered listeners about a change. */
-    private void fireChanged() {
+    private void fireChanged(ModelDelta delta) {
         List<ModelListener> copy;
         synchronized (listeners) {
             copy = new ArrayList<>(listeners);
         }
         for (ModelListener l : copy) {
             try {
-                l.modelChanged();
+                l.modelChanged(delta);
             } catch (Throwable t) {
                 t.printStackTrace();
             }
@@ -103,16 +638,7 @@ public class SimulationModel {
     }
 
     /** Clears all airports and flights, and notifies listeners. */
-    public synchronized void clearAll() {
-        flights.clear();
-        airports.clear();
-        fireChanged();
-    }
-
-    /** Resets all airports to their original state (flight queues, last sent time). */
-    public void reset() {
-        for (Airport a : airports.values()) {
-            a.restoreOriginalState();
-        }
+    public void clearAll() {
+        batch(Batch::clearAll);
     }
 }
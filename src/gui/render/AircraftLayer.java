@@ -0,0 +1,74 @@
+package gui.render;
+
+import java.awt.Graphics;
+import java.util.Arrays;
+
+import gui.simulation.TrafficSnapshot;
+
+/**
+ * Draws the aircraft of a TrafficSnapshot from a SpriteAtlas, batched by sprite.
+ * Aircraft are bucketed with a counting sort so that all aircraft sharing
+ * a sprite are blitted together. Sprites depend on the projection's aspect,
+ * so they are resolved once per snapshot and projection scale, not per frame.
+ * Scratch arrays are reused between frames; an instance must only be used
+ * from one thread (the painting thread).
+ */
+public class AircraftLayer {
+
+    private final int[] counts = new int[SpriteAtlas.SPRITES + 1];
+    private int[] order = new int[0];
+    private int[] sprites = new int[0];
+
+    // what sprites were resolved for
+    private TrafficSnapshot spritesFor;
+    private double spriteScaleX, spriteScaleY;
+
+    /**
+     * Paints all aircraft of the snapshot.
+     *
+     * @param p     view projection
+     * @param alpha interpolation factor between the previous and current tick (0..1)
+     */
+    public void paint(Graphics g, Projection p, TrafficSnapshot traffic, double alpha) {
+        int n = traffic.size();
+        if (order.length < n) {
+            order = new int[Math.max(n, order.length * 2)];
+        }
+        resolveSprites(traffic, p);
+
+        // Pass 1: bucket sizes
+        Arrays.fill(counts, 0);
+        for (int i = 0; i < n; i++) counts[sprites[i] + 1]++;
+        for (int s = 0; s < SpriteAtlas.SPRITES; s++) counts[s + 1] += counts[s];
+
+        // Pass 2: stable placement by sprite
+        for (int i = 0; i < n; i++) order[counts[sprites[i]]++] = i;
+
+        // Pass 3: blit, one atlas lookup per glyph width change
+        SpriteAtlas atlas = null;
+        int atlasWidth = -1;
+        for (int k = 0; k < n; k++) {
+            int i = order[k];
+            if (traffic.getWidth(i) != atlasWidth) {
+                atlasWidth = traffic.getWidth(i);
+                atlas = SpriteAtlas.forWidth(atlasWidth);
+            }
+            atlas.draw(g, sprites[i],
+                    (int) Math.round(p.toScreenX(traffic.getX(i, alpha))),
+                    (int) Math.round(p.toScreenY(traffic.getY(i, alpha))));
+        }
+    }
+
+    private void resolveSprites(TrafficSnapshot traffic, Projection p) {
+        if (traffic == spritesFor && p.getScaleX() == spriteScaleX && p.getScaleY() == spriteScaleY) return;
+        int n = traffic.size();
+        if (sprites.length < n) sprites = new int[Math.max(n, sprites.length * 2)];
+        for (int i = 0; i < n; i++) {
+            sprites[i] = SpriteAtlas.spriteIndex(traffic.getState(i),
+                    p.screenHeading(traffic.getDirX(i), traffic.getDirY(i)));
+        }
+        spritesFor = traffic;
+        spriteScaleX = p.getScaleX();
+        spriteScaleY = p.getScaleY();
+    }
+}
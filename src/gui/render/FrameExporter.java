@@ -0,0 +1,203 @@
+package gui.render;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.imageio.ImageIO;
+
+import gui.exceptions.IoExceptionWrapper;
+import gui.io.AirportCsvImport;
+import gui.io.FlightCsvImport;
+import gui.io.ImportReport;
+import gui.models.Airport;
+import gui.models.SimulationModel;
+import gui.service.RegistrationService;
+import gui.simulation.SimulationEngine;
+import gui.simulation.TrafficSnapshot;
+
+/**
+ * Renders published simulation snapshots into offscreen images and writes
+ * them as a numbered PNG sequence (frame_00000.png, ...). Works in headless mode.
+ *
+ * Drawing and PNG encoding run on a worker pool while the caller keeps
+ * advancing the simulation. At most maxInFlight frames are queued or being
+ * encoded at any time; submit() blocks when that limit is reached, which
+ * bounds memory regardless of how fast the engine runs.
+ */
+public class FrameExporter {
+
+    private static final int MAX_SHOWN_ERRORS = 20;
+
+    private final File outDir;
+    private final int width;
+    private final int height;
+    private final Projection projection;
+    private final ExecutorService workers;
+    private final Semaphore inFlight;
+    private final ThreadLocal<MapRenderer> renderers = ThreadLocal.withInitial(MapRenderer::new);
+    private final AtomicReference<IOException> failure = new AtomicReference<>();
+    private int nextFrame = 0;
+
+    /**
+     * @param outDir      output directory (created if missing)
+     * @param width       frame width in pixels
+     * @param height      frame height in pixels
+     * @param threads     number of encoder threads
+     * @param maxInFlight maximum number of frames rendered or waiting to be encoded
+     */
+    public FrameExporter(File outDir, int width, int height, int threads, int maxInFlight) {
+        this.outDir = outDir;
+        this.width = width;
+        this.height = height;
+        this.projection = Projection.fit(width, height);
+        this.workers = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "frame-encoder");
+            t.setDaemon(true);
+            return t;
+        });
+        this.inFlight = new Semaphore(Math.max(1, maxInFlight));
+    }
+
+    /**
+     * Queues one frame. Blocks while the in-flight limit is reached.
+     *
+     * @param airports airports to draw; must not change while frames are pending
+     * @param traffic  snapshot published by the engine
+     * @throws IoExceptionWrapper if an earlier frame failed to be written
+     */
+    public void submit(List<Airport> airports, TrafficSnapshot traffic) throws IoExceptionWrapper, InterruptedException {
+        checkFailure();
+        inFlight.acquire();
+        final File target = new File(outDir, String.format("frame_%05d.png", nextFrame++));
+        try {
+            workers.execute(() -> {
+                try {
+                    writeFrame(target, airports, traffic);
+                } catch (IOException ex) {
+                    failure.compareAndSet(null, ex);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RuntimeException ex) {
+            inFlight.release();
+            throw ex;
+        }
+    }
+
+    private void writeFrame(File target, List<Airport> airports, TrafficSnapshot traffic) throws IOException {
+        BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+        try {
+            g.setColor(Color.GREEN);
+            g.fillRect(0, 0, width, height);
+            renderers.get().render(g, projection, airports, traffic, 1.0);
+
+            long simMin = traffic.getSimTimeInMinutes();
+            g.setColor(Color.BLACK);
+            g.drawString(String.format("Time: %02d:%02d", (simMin / 60) % 24, simMin % 60), 8, 16);
+        } finally {
+            g.dispose();
+        }
+        if (!ImageIO.write(img, "png", target)) {
+            throw new IOException("No PNG writer available");
+        }
+    }
+
+    private void checkFailure() throws IoExceptionWrapper {
+        IOException ex = failure.get();
+        if (ex != null) throw new IoExceptionWrapper("Error writing frame: " + ex.getMessage(), ex);
+    }
+
+    /** Returns the number of frames submitted so far. */
+    public int getFrameCount() {
+        return nextFrame;
+    }
+
+    /** Waits for all pending frames to be written and shuts the pool down. */
+    public void close() throws IoExceptionWrapper, InterruptedException {
+        workers.shutdown();
+        while (!workers.awaitTermination(1, TimeUnit.SECONDS)) {
+            // keep waiting for the encoders to drain
+        }
+        checkFailure();
+    }
+
+    /**
+     * Runs the simulation headless from 00:00 to the given end time and
+     * exports one frame every framePeriod steps.
+     *
+     * @param model             model with registered airports and flights
+     * @param simMinutesPerStep simulation minutes advanced per engine step
+     * @param endMinute         last simulated minute (e.g., 1440 for one day)
+     * @param framePeriod       steps between exported frames (1 = every step)
+     */
+    public void exportRun(SimulationModel model, long simMinutesPerStep, long endMinute, int framePeriod)
+            throws IoExceptionWrapper, InterruptedException {
+        List<Airport> airports = new ArrayList<>(model.getAirports());
+
+        SimulationEngine engine = new SimulationEngine(model, 1L);
+        engine.reset();
+        try {
+            int step = 0;
+            for (long t = simMinutesPerStep; t <= endMinute; t += simMinutesPerStep) {
+                TrafficSnapshot traffic = engine.step(t);
+                if (step++ % Math.max(1, framePeriod) == 0) {
+                    submit(airports, traffic);
+                }
+            }
+        } finally {
+            engine.reset();
+        }
+    }
+
+    /**
+     * Headless entry point.
+     * Usage: FrameExporter airports.csv flights.csv outDir [width height [framePeriod]]
+     */
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        if (args.length < 3) {
+            System.err.println("Usage: FrameExporter airports.csv flights.csv outDir [width height [framePeriod]]");
+            System.exit(2);
+        }
+        int w = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+        int h = args.length > 4 ? Integer.parseInt(args[4]) : 650;
+        int period = args.length > 5 ? Integer.parseInt(args[5]) : 1;
+
+        SimulationModel model = new SimulationModel();
+        RegistrationService service = new RegistrationService(model);
+        ImportReport airports = AirportCsvImport.parse(Paths.get(args[0])).registerAll(service, 10);
+        ImportReport flights = FlightCsvImport.parse(Paths.get(args[1])).registerAll(service, 10);
+        for (String m : airports.toMessages(MAX_SHOWN_ERRORS)) System.err.println("airports: " + m);
+        for (String m : flights.toMessages(MAX_SHOWN_ERRORS)) System.err.println("flights: " + m);
+
+        File out = new File(args[2]);
+        if (!out.isDirectory() && !out.mkdirs()) {
+            System.err.println("Cannot create output directory: " + out);
+            System.exit(1);
+        }
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        long t0 = System.nanoTime();
+        FrameExporter exporter = new FrameExporter(out, w, h, threads, threads * 2);
+        try {
+            exporter.exportRun(model, 2, 24 * 60, period);
+        } finally {
+            exporter.close();
+        }
+        System.out.printf("Wrote %d frames to %s in %d ms%n",
+                exporter.getFrameCount(), out, (System.nanoTime() - t0) / 1_000_000);
+    }
+}
@@ -0,0 +1,154 @@
+package gui.render;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+import gui.simulation.TrafficSnapshot;
+
+/**
+ * Cumulative air-traffic density overlay.
+ *
+ * Each tick splats aircraft positions into a fixed SIZE x SIZE float raster
+ * covering the world area (-90..90 on both axes). Older traffic fades with an
+ * exponential half-life. Instead of decaying every cell on every tick, the
+ * splat weight grows by the inverse decay factor and the raster is rescaled
+ * only when that weight gets large, so an update costs O(aircraft) with no
+ * allocation. The raster is colorized into an image only when painted.
+ */
+public class HeatmapLayer {
+
+    /** Raster cells per side. */
+    public static final int SIZE = 256;
+
+    private static final double WORLD_MIN = -90.0;
+    private static final double WORLD_SPAN = 180.0;
+    private static final float RENORMALIZE_AT = 1e18f;
+
+    private static final int[] PALETTE = buildPalette();
+
+    private final float[] raster = new float[SIZE * SIZE];
+    private final double halfLifeMinutes;
+
+    private float weight = 1f;      // weight of a splat at the current sim time
+    private float maxRaw = 0f;      // largest raster value, in raw (unscaled) units
+    private long lastSimTime = Long.MIN_VALUE;
+
+    // Colorized view, rebuilt lazily when the raster changed
+    private final BufferedImage image = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_ARGB);
+    private final int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    private boolean dirty = true;
+
+    /**
+     * @param halfLifeMinutes simulated minutes after which accumulated density halves
+     */
+    public HeatmapLayer(double halfLifeMinutes) {
+        this.halfLifeMinutes = halfLifeMinutes;
+    }
+
+    /** Adds the aircraft of a published snapshot to the raster. */
+    public synchronized void accumulate(TrafficSnapshot traffic) {
+        long now = traffic.getSimTimeInMinutes();
+        if (lastSimTime != Long.MIN_VALUE && now > lastSimTime) {
+            weight *= (float) Math.pow(2.0, (now - lastSimTime) / halfLifeMinutes);
+            if (weight > RENORMALIZE_AT) renormalize();
+        }
+        lastSimTime = now;
+
+        final float scale = SIZE / (float) WORLD_SPAN;
+        for (int i = 0, n = traffic.size(); i < n; i++) {
+            // raster row 0 is the top edge (world y = +90)
+            float fx = (float) (traffic.getX(i, 1.0) - WORLD_MIN) * scale - 0.5f;
+            float fy = (float) (WORLD_MIN + WORLD_SPAN - traffic.getY(i, 1.0)) * scale - 0.5f;
+            int cx = (int) Math.floor(fx);
+            int cy = (int) Math.floor(fy);
+            float ax = fx - cx;
+            float ay = fy - cy;
+            // bilinear splat over the 4 neighbouring cells
+            splat(cx, cy, (1 - ax) * (1 - ay) * weight);
+            splat(cx + 1, cy, ax * (1 - ay) * weight);
+            splat(cx, cy + 1, (1 - ax) * ay * weight);
+            splat(cx + 1, cy + 1, ax * ay * weight);
+        }
+        dirty = true;
+    }
+
+    private void splat(int cx, int cy, float w) {
+        if (cx < 0 || cy < 0 || cx >= SIZE || cy >= SIZE) return;
+        int idx = cy * SIZE + cx;
+        float v = raster[idx] + w;
+        raster[idx] = v;
+        if (v > maxRaw) maxRaw = v;
+    }
+
+    /** Brings raw values back to the scale of a unit weight. */
+    private void renormalize() {
+        float inv = 1f / weight;
+        for (int i = 0; i < raster.length; i++) raster[i] *= inv;
+        maxRaw *= inv;
+        weight = 1f;
+    }
+
+    /** Clears all accumulated density. */
+    public synchronized void reset() {
+        Arrays.fill(raster, 0f);
+        weight = 1f;
+        maxRaw = 0f;
+        lastSimTime = Long.MIN_VALUE;
+        dirty = true;
+    }
+
+    /**
+     * Paints the overlay stretched over the world area as projected by the view.
+     * Draws under the lock of accumulate, so a frame never shows a raster
+     * that is half splatted or half renormalized.
+     */
+    public void paint(Graphics g, Projection p) {
+        int x0 = (int) Math.round(p.toScreenX(WORLD_MIN));
+        int y0 = (int) Math.round(p.toScreenY(WORLD_MIN + WORLD_SPAN));
+        int w = (int) Math.round(WORLD_SPAN * p.getScaleX());
+        int h = (int) Math.round(WORLD_SPAN * p.getScaleY());
+        synchronized (this) {
+            if (dirty) colorize();
+            g.drawImage(image, x0, y0, w, h, null);
+        }
+    }
+
+    private void colorize() {
+        if (maxRaw <= 0f) {
+            Arrays.fill(pixels, 0);
+        } else {
+            float inv = 1f / maxRaw;
+            for (int i = 0; i < raster.length; i++) {
+                // square root expands the low end so sparse routes stay visible
+                int level = (int) (Math.sqrt(raster[i] * inv) * (PALETTE.length - 1));
+                pixels[i] = PALETTE[level];
+            }
+        }
+        dirty = false;
+    }
+
+    /** Transparent -> blue -> yellow -> red ramp, opacity rising with density. */
+    private static int[] buildPalette() {
+        int[] p = new int[256];
+        for (int i = 0; i < p.length; i++) {
+            double t = i / 255.0;
+            int r, g, b;
+            if (t < 0.5) {
+                double u = t / 0.5;
+                r = (int) (255 * u);
+                g = (int) (255 * u);
+                b = (int) (255 * (1 - u));
+            } else {
+                double u = (t - 0.5) / 0.5;
+                r = 255;
+                g = (int) (255 * (1 - u));
+                b = 0;
+            }
+            int a = i == 0 ? 0 : (int) (60 + 150 * t);
+            p[i] = (a << 24) | (r << 16) | (g << 8) | b;
+        }
+        return p;
+    }
+}
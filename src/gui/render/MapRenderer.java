@@ -0,0 +1,47 @@
+package gui.render;
+
+import java.awt.Graphics;
+import java.util.Collection;
+
+import gui.models.Airport;
+import gui.simulation.TrafficSnapshot;
+
+/**
+ * Draws the simulation map (optional heatmap, airports and aircraft) onto any Graphics,
+ * whether it belongs to the on-screen Scene or to an offscreen image.
+ * Not thread-safe: each painting thread needs its own instance.
+ */
+public class MapRenderer {
+
+    private final AircraftLayer aircraftLayer = new AircraftLayer();
+    private volatile HeatmapLayer heatmap;
+
+    /** Sets the density overlay drawn under airports and aircraft (null = none). */
+    public void setHeatmap(HeatmapLayer heatmap) {
+        this.heatmap = heatmap;
+    }
+
+    /**
+     * Renders the map through the given view projection.
+     *
+     * @param projection world-to-view mapping
+     * @param airports airports to draw (hidden ones are skipped)
+     * @param traffic  published traffic, may be null
+     * @param alpha    interpolation factor between the previous and current tick (0..1)
+     */
+    public void render(Graphics g, Projection projection, Collection<Airport> airports,
+                       TrafficSnapshot traffic, double alpha) {
+        HeatmapLayer hm = heatmap;
+        if (hm != null) {
+            hm.paint(g, projection);
+        }
+
+        for (Airport a : airports) {
+            if (a.isVisible()) a.paint(g, projection);
+        }
+
+        if (traffic != null) {
+            aircraftLayer.paint(g, projection, traffic, alpha);
+        }
+    }
+}
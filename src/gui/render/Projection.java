@@ -0,0 +1,68 @@
+package gui.render;
+
+/**
+ * Affine mapping from world coordinates (north up) to the pixels of one view.
+ * The model only holds world coordinates; every view owns its projection and
+ * applies it at draw time, so a resize only replaces the projection and
+ * several views can show the same model at different scales.
+ * Immutable.
+ */
+public final class Projection {
+
+    /** Half extent of the world area shown by {@link #fit(int, int)}. */
+    public static final double WORLD_HALF_EXTENT = 100.0;
+
+    private final double originX; // screen position of the world origin
+    private final double originY;
+    private final double scaleX;  // pixels per world unit
+    private final double scaleY;
+
+    public Projection(double originX, double originY, double scaleX, double scaleY) {
+        this.originX = originX;
+        this.originY = originY;
+        this.scaleX = scaleX;
+        this.scaleY = scaleY;
+    }
+
+    /** Shows the whole world area (+/-WORLD_HALF_EXTENT on both axes) in a width x height view. */
+    public static Projection fit(int width, int height) {
+        return new Projection(width / 2.0, height / 2.0,
+                (width / 2.0) / WORLD_HALF_EXTENT, (height / 2.0) / WORLD_HALF_EXTENT);
+    }
+
+    /**
+     * Centers a width x height view on a world point.
+     *
+     * @param pixelsPerUnit scale on both axes
+     */
+    public static Projection centeredOn(double worldX, double worldY, double pixelsPerUnit, int width, int height) {
+        return new Projection(width / 2.0 - worldX * pixelsPerUnit, height / 2.0 + worldY * pixelsPerUnit,
+                pixelsPerUnit, pixelsPerUnit);
+    }
+
+    /** Returns this projection moved by (dx, dy) pixels, e.g. to draw into a sub-area. */
+    public Projection translate(double dx, double dy) {
+        return new Projection(originX + dx, originY + dy, scaleX, scaleY);
+    }
+
+    public double toScreenX(double worldX) { return originX + worldX * scaleX; }
+    public double toScreenY(double worldY) { return originY - worldY * scaleY; }
+    public double toWorldX(double screenX) { return (screenX - originX) / scaleX; }
+    public double toWorldY(double screenY) { return (originY - screenY) / scaleY; }
+
+    public double getScaleX() { return scaleX; }
+    public double getScaleY() { return scaleY; }
+
+    /**
+     * Converts a world direction into a screen heading in radians
+     * (0 = east, clockwise), accounting for unequal axis scales.
+     */
+    public double screenHeading(double worldDirX, double worldDirY) {
+        return Math.atan2(-worldDirY * scaleY, worldDirX * scaleX);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Projection[origin=(%.1f, %.1f), scale=(%.3f, %.3f)]", originX, originY, scaleX, scaleY);
+    }
+}
@@ -0,0 +1,108 @@
+package gui.render;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Polygon;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+
+import gui.models.FlightState;
+
+/**
+ * Pre-rendered aircraft glyphs packed into a single image.
+ * The atlas holds one row per FlightState and one column per heading step,
+ * so drawing an aircraft is a single image blit with no Graphics state changes.
+ */
+public final class SpriteAtlas {
+
+    /** Number of pre-rotated heading variants (22.5 degrees apart). */
+    public static final int HEADINGS = 16;
+
+    /** Total number of sprites in every atlas. */
+    public static final int SPRITES = HEADINGS * FlightState.values().length;
+
+    // Indexed by FlightState.ordinal()
+    private static final Color[] STATE_COLORS = {
+        Color.BLUE,        // ON_TIME
+        Color.ORANGE       // DELAYED
+    };
+
+    // One atlas per glyph width, built lazily
+    private static final Map<Integer, SpriteAtlas> cache = new HashMap<>();
+
+    private final BufferedImage image;
+    private final int cell;
+    private final int half;
+
+    /** Returns the (shared) atlas for glyphs of the given pixel width. */
+    public static synchronized SpriteAtlas forWidth(int width) {
+        return cache.computeIfAbsent(Math.max(2, width), SpriteAtlas::new);
+    }
+
+    private SpriteAtlas(int width) {
+        this.cell = width + 2;
+        this.half = cell / 2;
+        this.image = new BufferedImage(cell * HEADINGS, cell * FlightState.values().length,
+                BufferedImage.TYPE_INT_ARGB);
+
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        Polygon glyph = createGlyph(width / 2.0);
+        AffineTransform base = g.getTransform();
+        for (FlightState state : FlightState.values()) {
+            g.setColor(STATE_COLORS[state.ordinal()]);
+            for (int h = 0; h < HEADINGS; h++) {
+                g.setTransform(base);
+                g.translate(h * cell + cell / 2.0, state.ordinal() * cell + cell / 2.0);
+                g.rotate(h * 2 * Math.PI / HEADINGS);
+                g.fillPolygon(glyph);
+            }
+        }
+        g.dispose();
+    }
+
+    /** Arrow-shaped glyph of radius r, pointing along +x. */
+    private static Polygon createGlyph(double r) {
+        Polygon p = new Polygon();
+        p.addPoint((int) Math.round(r), 0);
+        p.addPoint((int) Math.round(-r), (int) Math.round(-0.8 * r));
+        p.addPoint((int) Math.round(-0.4 * r), 0);
+        p.addPoint((int) Math.round(-r), (int) Math.round(0.8 * r));
+        return p;
+    }
+
+    /**
+     * Returns the sprite index for a state and heading.
+     *
+     * @param state   flight display state
+     * @param heading heading in radians, screen coordinates (0 = east, clockwise)
+     */
+    public static int spriteIndex(FlightState state, double heading) {
+        int h = (int) Math.round(heading * HEADINGS / (2 * Math.PI)) % HEADINGS;
+        if (h < 0) h += HEADINGS;
+        return state.ordinal() * HEADINGS + h;
+    }
+
+    /**
+     * Draws one aircraft at world position (x, y), with the sprite for its
+     * state and direction of travel (world coordinates).
+     */
+    public static void drawAircraft(Graphics g, Projection p, int width, FlightState state,
+            double dirX, double dirY, double x, double y) {
+        forWidth(width).draw(g, spriteIndex(state, p.screenHeading(dirX, dirY)),
+                (int) Math.round(p.toScreenX(x)), (int) Math.round(p.toScreenY(y)));
+    }
+
+    /** Blits the given sprite centered at (cx, cy). */
+    public void draw(Graphics g, int sprite, int cx, int cy) {
+        int sx = (sprite % HEADINGS) * cell;
+        int sy = (sprite / HEADINGS) * cell;
+        int dx = cx - half;
+        int dy = cy - half;
+        g.drawImage(image, dx, dy, dx + cell, dy + cell, sx, sy, sx + cell, sy + cell, null);
+    }
+}
@@ -0,0 +1,24 @@
+package gui.service;
+
+/**
+ * One airport to register in bulk (see RegistrationService#registerAirports),
+ * with its coordinates already parsed.
+ */
+public final class AirportRow {
+    private final String name;
+    private final String code;
+    private final double x;
+    private final double y;
+
+    public AirportRow(String name, String code, double x, double y) {
+        this.name = name;
+        this.code = code;
+        this.x = x;
+        this.y = y;
+    }
+
+    public String getName() { return name; }
+    public String getCode() { return code; }
+    public double getX() { return x; }
+    public double getY() { return y; }
+}
@@ -0,0 +1,57 @@
+package gui.service;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of a long-running operation such as a bulk import. Workers report
+ * the current phase and the units done (from any thread); a UI polls the
+ * values and may request cancellation, which workers honor at their next
+ * checkCancelled() call.
+ */
+public class ProgressMonitor {
+
+    private volatile String phase = "";
+    private volatile long total;
+    private final AtomicLong done = new AtomicLong();
+    private final AtomicLong rows = new AtomicLong();
+    private volatile boolean cancelled;
+
+    /** Starts a phase of the given size (in rows, bytes, ...); resets the units and rows done. */
+    public void begin(String phase, long total) {
+        this.phase = phase;
+        this.total = total;
+        done.set(0);
+        rows.set(0);
+    }
+
+    /** Adds rows done in a phase counted in rows. */
+    public void worked(long rows) {
+        worked(rows, rows);
+    }
+
+    /** Adds units done in the current phase, covering the given number of rows. */
+    public void worked(long units, long rows) {
+        done.addAndGet(units);
+        this.rows.addAndGet(rows);
+    }
+
+    public String getPhase() { return phase; }
+    public long getTotal() { return total; }
+    public long getDone() { return done.get(); }
+    public long getRows() { return rows.get(); }
+
+    /** Asks the workers to stop. */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /** @throws CancellationException if cancellation was requested */
+    public void checkCancelled() {
+        if (cancelled) throw new CancellationException();
+    }
+}
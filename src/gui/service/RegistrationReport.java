@@ -0,0 +1,85 @@
+package gui.service;
+
+import java.util.Arrays;
+
+/**
+ * Result of a bulk registration: the number of registered rows (and, for a
+ * sync, of updated, removed and unchanged flights) and, for each rejected
+ * row, its index in the input and the reason. Only rejected rows
+ * take space, and their messages are shared constants where possible, so
+ * the report stays small for large batches.
+ */
+public final class RegistrationReport {
+
+    private final int registered;
+    private final int updated, removed, unchanged;
+    private final int[] rows;
+    private final String[] messages;
+
+    RegistrationReport(int registered, int updated, int removed, int unchanged, int[] rows, String[] messages) {
+        this.registered = registered;
+        this.updated = updated;
+        this.removed = removed;
+        this.unchanged = unchanged;
+        this.rows = rows;
+        this.messages = messages;
+    }
+
+    public int getRegistered() { return registered; }
+
+    /** Flights changed in place by a sync (see RegistrationService#syncFlights); 0 otherwise. */
+    public int getUpdated() { return updated; }
+
+    /** Flights removed by a sync; 0 otherwise. */
+    public int getRemoved() { return removed; }
+
+    /** Rows of a sync whose flight was already registered; 0 otherwise. */
+    public int getUnchanged() { return unchanged; }
+
+    public int getRejectedCount() { return rows.length; }
+
+    /** Input index of the i-th rejected row; rows are in increasing order. */
+    public int getRejectedRow(int i) { return rows[i]; }
+
+    /** Reason the i-th rejected row was not registered. */
+    public String getMessage(int i) { return messages[i]; }
+
+    /** Collects rejections in any order; build() sorts them by row. */
+    static final class Builder {
+        private int[] rows = new int[16];
+        private String[] messages = new String[16];
+        private int size;
+
+        void reject(int row, String message) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+                messages = Arrays.copyOf(messages, size * 2);
+            }
+            rows[size] = row;
+            messages[size++] = message;
+        }
+
+        void addAll(Builder other) {
+            for (int i = 0; i < other.size; i++) reject(other.rows[i], other.messages[i]);
+        }
+
+        RegistrationReport build(int registered) {
+            return build(registered, 0, 0, 0);
+        }
+
+        RegistrationReport build(int registered, int updated, int removed, int unchanged) {
+            // a row is rejected at most once, so sorting (row << 32 | position) orders them
+            long[] order = new long[size];
+            for (int i = 0; i < size; i++) order[i] = ((long) rows[i] << 32) | i;
+            Arrays.sort(order);
+            int[] r = new int[size];
+            String[] m = new String[size];
+            for (int i = 0; i < size; i++) {
+                int at = (int) order[i];
+                r[i] = rows[at];
+                m[i] = messages[at];
+            }
+            return new RegistrationReport(registered, updated, removed, unchanged, r, m);
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package gui.service;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.stream.IntStream;
 
 import gui.exceptions.DuplicateEntityException;
 import gui.exceptions.ValidationException;
@@ -9,6 +11,9 @@ import gui.factory.AirportFactory;
 import gui.factory.AirplaneFactory;
 import gui.models.Airplane;
 import gui.models.Airport;
+import gui.models.AirportCodes;
+import gui.models.ModelDelta;
+import gui.models.ScheduleStore;
 import gui.models.SimulationModel;
 
 /**
@@ -17,6 +22,14 @@ import gui.models.SimulationModel;
  * parsing errors, duplicates, missing airports, invalid inputs, etc.
  */
 public class RegistrationService {
+    private static final String DUPLICATE_FLIGHT = "A similar flight already exists (same departure, destination, time, and duration).";
+
+    /** Bulk registrations report progress and check for cancellation every 4096 rows. */
+    private static final int PROGRESS_MASK = 4096 - 1;
+
+    /** Rows per parallel task of the bulk registrations, at least. */
+    private static final int MIN_ROWS_PER_PART = 16 * 1024;
+
     private final SimulationModel model;
 
     public RegistrationService(SimulationModel model) {
@@ -53,6 +66,26 @@ public class RegistrationService {
             throw new ValidationException("Y coordinate is not a valid number.");
         }
 
+        return createAndRegisterAirport(x, y, width, name, code);
+    }
+
+    /**
+     * Creates and registers an airport from already parsed coordinates (e.g. by a bulk importer).
+     *
+     * @return registered Airport
+     * @throws ValidationException if any validation fails
+     */
+    public Airport createAndRegisterAirport(double x, double y, int width, String name, String code) throws ValidationException {
+        Airport a = checkNewAirport(x, y, width, name, code);
+
+        // register in model
+        model.addAirport(a);
+        return a;
+    }
+
+    /** Validates an airport that is not registered yet and creates it. */
+    private Airport checkNewAirport(double x, double y, int width, String name, String code) throws ValidationException {
+        if (code == null || code.trim().isEmpty()) throw new ValidationException("Airport code is required.");
         String normalizedCode = code.trim().toUpperCase();
 
         // check for duplicate code in model
@@ -63,21 +96,17 @@ public class RegistrationService {
         // delegate semantic validation to factory (throws ValidationException if invalid)
         Airport a = AirportFactory.create(x, y, width, name, normalizedCode);
 
-        // check for duplicate coordinates
-        for (Airport existing : model.getAirports()) {
-            if (Double.compare(existing.getX(), a.getX()) == 0 &&
-                Double.compare(existing.getY(), a.getY()) == 0) {
-                throw new DuplicateEntityException(
-                    String.format("An airport already exists at coordinates: (%.3f, %.3f)", a.getNsX(), a.getNsY())
-                );
-            }
+        // check for duplicate coordinates (world coordinates, spatial hash lookup)
+        if (model.getAirportAt(a.getNsX(), a.getNsY()) != null) {
+            throw new DuplicateEntityException(duplicatePosition(a));
         }
-
-        // register in model
-        model.addAirport(a);
         return a;
     }
 
+    private static String duplicatePosition(Airport a) {
+        return String.format("An airport already exists at coordinates: (%.3f, %.3f)", a.getNsX(), a.getNsY());
+    }
+
     /**
      * Creates and registers a flight. Throws ValidationException for all validation errors.
      *
@@ -101,39 +130,622 @@ public class RegistrationService {
             throw new ValidationException("Duration is not a valid number.");
         }
 
-        String normFrom = fromCode.trim().toUpperCase();
-        String normTo = toCode.trim().toUpperCase();
-
-        Airport from = model.getAirport(normFrom);
-        if (from == null) throw new ValidationException("Departure airport (" + normFrom + ") does not exist.");
-        Airport to = model.getAirport(normTo);
-        if (to == null) throw new ValidationException("Destination airport (" + normTo + ") does not exist.");
+        // encoded-code table lookups; normalized strings are only built for error messages
+        Airport from = model.getAirport(fromCode);
+        if (from == null) throw new ValidationException("Departure airport (" + fromCode.trim().toUpperCase() + ") does not exist.");
+        Airport to = model.getAirport(toCode);
+        if (to == null) throw new ValidationException("Destination airport (" + toCode.trim().toUpperCase() + ") does not exist.");
 
         // factory will throw ValidationException for invalid format, duration, or same airport
         Airplane ap = AirplaneFactory.create(width, from, to, takeOffTime, duration);
 
-        // check for duplicate flight
-        for (Airplane existing : model.getFlights()) {
-            boolean sameRoute = existing.getFrom().getCode().equals(ap.getFrom().getCode())
-                    && existing.getTo().getCode().equals(ap.getTo().getCode());
-            boolean sameDeparture = existing.getDepartureInMinutes() == ap.getDepartureInMinutes();
-            boolean sameDuration = existing.getDuration() == ap.getDuration();
-            if (sameRoute && sameDeparture && sameDuration) {
-                throw new DuplicateEntityException("A similar flight already exists (same departure, destination, time, and duration).");
-            }
+        // duplicate check and insert in one step (O(1) hash lookup in the model)
+        if (!model.addFlightIfAbsent(ap)) {
+            throw new DuplicateEntityException(DUPLICATE_FLIGHT);
         }
+        return ap;
+    }
+
+    /**
+     * Creates and registers a flight from already parsed fields (e.g. by a bulk importer).
+     *
+     * @param fromId encoded departure airport code (see AirportCodes)
+     * @param toId encoded destination airport code
+     * @param departure departure in minutes since 00:00
+     * @param duration duration in minutes
+     * @return registered Airplane
+     * @throws ValidationException if validation fails
+     */
+    public Airplane createAndRegisterFlight(int width, int fromId, int toId, int departure, int duration) throws ValidationException {
+        Airport from = model.getAirport(fromId);
+        if (from == null) throw new ValidationException("Departure airport (" + AirportCodes.decode(fromId) + ") does not exist.");
+        Airport to = model.getAirport(toId);
+        if (to == null) throw new ValidationException("Destination airport (" + AirportCodes.decode(toId) + ") does not exist.");
 
-        model.addFlight(ap);
+        Airplane ap = AirplaneFactory.create(width, from, to, departure, duration);
+        if (!model.addFlightIfAbsent(ap)) {
+            throw new DuplicateEntityException(DUPLICATE_FLIGHT);
+        }
         return ap;
     }
 
-    /** Read-only snapshot copy of airports. */
+    /**
+     * Registers many flights in two phases. First, in parallel and without
+     * touching the model, every row is validated against a frozen copy of the
+     * airport table, checked for an existing flight, and compared with the other
+     * rows (the first of equal rows wins). Then all accepted rows are
+     * registered as one model batch, which publishes a single change. Rows
+     * that a concurrent writer made invalid in the meantime (airport removed,
+     * same flight added) are rejected at that point.
+     *
+     * @param rows flights as packed records (airport code ids, departure minute, duration)
+     * @param width pixel width for drawing the airplanes
+     * @return registered count and the rejected rows, by index in rows
+     */
+    public RegistrationReport registerFlights(ScheduleStore rows, int width) {
+        return registerFlights(rows, width, new ProgressMonitor());
+    }
+
+    /**
+     * Like registerFlights(rows, width), reporting a "Validating" and a
+     * "Registering" phase counted in rows. Cancelling during registration
+     * rolls back the rows registered so far inside the same model batch, so
+     * listeners see no flight of the call added.
+     *
+     * @throws CancellationException if the monitor was cancelled
+     */
+    public RegistrationReport registerFlights(ScheduleStore rows, int width, ProgressMonitor monitor) {
+        int n = rows.size();
+        monitor.begin("Validating", n);
+        Airport[] airports = frozenAirports();
+        Airplane[] accepted = new Airplane[n];
+        int parts = partsFor(n);
+        RegistrationReport.Builder[] rejected = new RegistrationReport.Builder[parts];
+
+        // phase 1a: each row on its own; accepted rows are bucketed by record hash
+        Buckets buckets = new Buckets(parts);
+        IntStream.range(0, parts).parallel().forEach(p -> {
+            RegistrationReport.Builder out = rejected[p] = new RegistrationReport.Builder();
+            for (int i = (int) ((long) n * p / parts), end = (int) ((long) n * (p + 1) / parts); i < end; i++) {
+                if ((i & PROGRESS_MASK) == 0) {
+                    monitor.checkCancelled();
+                    monitor.worked(Math.min(PROGRESS_MASK + 1, end - i));
+                }
+                long r = rows.getRecord(i);
+                int fromId = ScheduleStore.fromIdOf(r), toId = ScheduleStore.toIdOf(r);
+                int departure = ScheduleStore.departureOf(r), duration = ScheduleStore.durationOf(r);
+                try {
+                    Airport from = airports[fromId];
+                    if (from == null) throw new ValidationException("Departure airport (" + AirportCodes.decode(fromId) + ") does not exist.");
+                    Airport to = airports[toId];
+                    if (to == null) throw new ValidationException("Destination airport (" + AirportCodes.decode(toId) + ") does not exist.");
+                    Airplane ap = AirplaneFactory.create(width, from, to, departure, duration);
+                    if (model.findFlight(fromId, toId, departure, duration) != null) throw new DuplicateEntityException(DUPLICATE_FLIGHT);
+                    accepted[i] = ap;
+                    buckets.add(p, RecordMap.hash(r) % parts, i);
+                } catch (ValidationException ve) {
+                    out.reject(i, ve.getMessage());
+                }
+            }
+        });
+
+        // phase 1b: duplicates within the batch; equal rows are in the same bucket
+        IntStream.range(0, parts).parallel().forEach(p -> {
+            RecordMap seen = new RecordMap();
+            for (int src = 0; src < parts; src++) {
+                monitor.checkCancelled();
+                int[] bucket = buckets.get(src, p);
+                for (int k = 0, size = buckets.size(src, p); k < size; k++) {
+                    int i = bucket[k];
+                    if (seen.putIfAbsent(rows.getRecord(i), i) >= 0) {
+                        accepted[i] = null;
+                        rejected[p].reject(i, DUPLICATE_FLIGHT);
+                    }
+                }
+            }
+        });
+
+        // phase 2: one model transaction
+        RegistrationReport.Builder report = new RegistrationReport.Builder();
+        for (RegistrationReport.Builder b : rejected) report.addAll(b);
+        int[] registered = { 0 };
+        monitor.begin("Registering", n);
+        model.batch(b -> {
+            for (int i = 0; i < n; i++) {
+                if ((i & PROGRESS_MASK) == 0) {
+                    if (monitor.isCancelled()) {
+                        // added and removed in one batch: the delta cancels out; newest first
+                        for (int j = i - 1; j >= 0; j--) if (accepted[j] != null) b.removeFlight(accepted[j]);
+                        monitor.checkCancelled();
+                    }
+                    monitor.worked(Math.min(PROGRESS_MASK + 1, n - i));
+                }
+                Airplane ap = accepted[i];
+                if (ap == null) continue;
+                String error = null;
+                if (model.getAirport(ap.getFrom().getCodeId()) != ap.getFrom()) {
+                    error = "Departure airport (" + ap.getFrom().getCode() + ") does not exist.";
+                } else if (model.getAirport(ap.getTo().getCodeId()) != ap.getTo()) {
+                    error = "Destination airport (" + ap.getTo().getCode() + ") does not exist.";
+                } else if (!b.addFlightIfAbsent(ap)) {
+                    error = DUPLICATE_FLIGHT;
+                }
+                if (error != null) {
+                    accepted[i] = null;
+                    report.reject(i, error);
+                } else {
+                    registered[0]++;
+                }
+            }
+        });
+        return report.build(registered[0]);
+    }
+
+    /**
+     * Makes the registered flights equal to the rows, e.g. for a daily
+     * schedule refresh: rows without a flight are registered, flights
+     * without a row are removed, and a removed flight and a new row with the
+     * same route and departure become one update: the row's flight replaces
+     * the removed one.
+     * Unchanged flights are not touched, so the commit and the published
+     * delta grow with the number of changes, not with the schedule.
+     *
+     * Rows and flights are each read once and bucketed by record hash, then
+     * matched part by part in hash-partitioned maps, in parallel. Rows are
+     * validated as in registerFlights; rejected rows do not keep a flight.
+     * Phases: "Validating" (rows), "Diffing" (flights) and "Registering"
+     * (changes). New flights are added first: cancelling until then removes
+     * them again inside the same model batch, so listeners see an empty
+     * delta and the flight order is unchanged. Updates and removals come
+     * last and are not cancelled.
+     *
+     * @param rows the whole schedule, as packed records
+     * @param width pixel width for drawing new airplanes
+     * @return registered, updated, removed and unchanged counts and the rejected rows, by index in rows
+     * @throws CancellationException if the monitor was cancelled
+     */
+    public RegistrationReport syncFlights(ScheduleStore rows, int width, ProgressMonitor monitor) {
+        return syncFlights(rows, new ScheduleStore(1), width, monitor);
+    }
+
+    /**
+     * Like syncFlights(rows, width, monitor), but a flight with the route and
+     * departure of a keep row is not removed even if no row matches it; the
+     * durations of the keep rows are ignored. Meant for lines the caller
+     * could not fully read, which should not remove the flight they name.
+     * Kept flights count as unchanged.
+     */
+    public RegistrationReport syncFlights(ScheduleStore rows, ScheduleStore keep, int width, ProgressMonitor monitor) {
+        int n = rows.size();
+        monitor.begin("Validating", n);
+        Airport[] airports = frozenAirports();
+        List<Airplane> flights = model.getSnapshot().getFlights();
+        int m = flights.size();
+        int parts = partsFor(Math.max(n, m));
+        RegistrationReport.Builder[] rejected = new RegistrationReport.Builder[parts];
+        RecordMap[] rowOf = new RecordMap[parts];
+        boolean[] valid = new boolean[n];
+
+        // phase 1a: airports of each row; valid rows are bucketed by record hash
+        Buckets rowBuckets = new Buckets(parts);
+        IntStream.range(0, parts).parallel().forEach(p -> {
+            RegistrationReport.Builder out = rejected[p] = new RegistrationReport.Builder();
+            for (int i = (int) ((long) n * p / parts), end = (int) ((long) n * (p + 1) / parts); i < end; i++) {
+                if ((i & PROGRESS_MASK) == 0) {
+                    monitor.checkCancelled();
+                    monitor.worked(Math.min(PROGRESS_MASK + 1, end - i));
+                }
+                long r = rows.getRecord(i);
+                int fromId = ScheduleStore.fromIdOf(r), toId = ScheduleStore.toIdOf(r);
+                if (airports[fromId] == null) {
+                    out.reject(i, "Departure airport (" + AirportCodes.decode(fromId) + ") does not exist.");
+                } else if (airports[toId] == null) {
+                    out.reject(i, "Destination airport (" + AirportCodes.decode(toId) + ") does not exist.");
+                } else {
+                    valid[i] = true;
+                    rowBuckets.add(p, RecordMap.hash(r) % parts, i);
+                }
+            }
+        });
+
+        // phase 1b: duplicates; equal rows are in the same bucket
+        IntStream.range(0, parts).parallel().forEach(p -> {
+            RecordMap index = rowOf[p] = new RecordMap();
+            for (int src = 0; src < parts; src++) {
+                monitor.checkCancelled();
+                int[] bucket = rowBuckets.get(src, p);
+                for (int k = 0, size = rowBuckets.size(src, p); k < size; k++) {
+                    int i = bucket[k];
+                    if (index.putIfAbsent(rows.getRecord(i), i) >= 0) {
+                        valid[i] = false;
+                        rejected[p].reject(i, DUPLICATE_FLIGHT);
+                    }
+                }
+            }
+        });
+
+        // phase 2a: the records of the registered flights, bucketed by hash
+        monitor.begin("Diffing", m);
+        long[] records = new long[m];
+        Buckets flightBuckets = new Buckets(parts);
+        IntStream.range(0, parts).parallel().forEach(p -> {
+            for (int j = (int) ((long) m * p / parts), end = (int) ((long) m * (p + 1) / parts); j < end; j++) {
+                if ((j & PROGRESS_MASK) == 0) {
+                    monitor.checkCancelled();
+                    monitor.worked(Math.min(PROGRESS_MASK + 1, end - j));
+                }
+                long r = records[j] = recordOf(flights.get(j));
+                flightBuckets.add(p, RecordMap.hash(r) % parts, j);
+            }
+        });
+
+        // phase 2b: each flight against the rows of its part
+        boolean[] matched = new boolean[n];
+        boolean[] stale = new boolean[m];
+        IntStream.range(0, parts).parallel().forEach(p -> {
+            for (int src = 0; src < parts; src++) {
+                monitor.checkCancelled();
+                int[] bucket = flightBuckets.get(src, p);
+                for (int k = 0, size = flightBuckets.size(src, p); k < size; k++) {
+                    int j = bucket[k];
+                    int row = rowOf[p].get(records[j]);
+                    if (row >= 0 && !matched[row]) matched[row] = true;
+                    else stale[j] = true;
+                }
+            }
+        });
+
+        // phase 3: pair new rows with stale flights of the same route and departure
+        RecordMap staleByKey = new RecordMap();
+        int[] nextStale = new int[m];
+        for (int j = m - 1; j >= 0; j--) {
+            if (!stale[j]) continue;
+            long key = records[j] | ScheduleStore.MAX_DURATION;
+            nextStale[j] = staleByKey.get(key);
+            staleByKey.put(key, j);
+        }
+        RegistrationReport.Builder report = new RegistrationReport.Builder();
+        for (RegistrationReport.Builder b : rejected) report.addAll(b);
+        int unchanged = 0;
+        int newRows = 0;
+        for (int i = 0; i < n; i++) {
+            if (!valid[i]) continue;
+            if (matched[i]) unchanged++;
+            else newRows++;
+        }
+        // inserts[x] is the flight of row insertRows[x]; replaces[x] the stale flight it updates, or null
+        Airplane[] inserts = new Airplane[newRows];
+        Airplane[] replaces = new Airplane[newRows];
+        int[] insertRows = new int[newRows];
+        int insertCount = 0;
+        for (int i = 0; i < n; i++) {
+            if ((i & PROGRESS_MASK) == 0) monitor.checkCancelled();
+            if (!valid[i] || matched[i]) continue;
+            long r = rows.getRecord(i);
+            Airplane ap;
+            try {
+                ap = AirplaneFactory.create(width, airports[ScheduleStore.fromIdOf(r)], airports[ScheduleStore.toIdOf(r)],
+                        ScheduleStore.departureOf(r), ScheduleStore.durationOf(r));
+            } catch (ValidationException ve) {
+                report.reject(i, ve.getMessage());
+                continue;
+            }
+            long key = r | ScheduleStore.MAX_DURATION;
+            int j = staleByKey.get(key);
+            if (j >= 0) {
+                staleByKey.put(key, nextStale[j]);
+                stale[j] = false;
+                replaces[insertCount] = flights.get(j);
+            }
+            inserts[insertCount] = ap;
+            insertRows[insertCount++] = i;
+        }
+        RecordMap kept = new RecordMap();
+        for (int i = 0; i < keep.size(); i++) kept.put(keep.getRecord(i) | ScheduleStore.MAX_DURATION, i);
+        int staleCount = 0;
+        for (int j = 0; j < m; j++) {
+            if (!stale[j]) continue;
+            if (kept.get(records[j] | ScheduleStore.MAX_DURATION) >= 0) {
+                stale[j] = false;
+                unchanged++;
+            } else {
+                staleCount++;
+            }
+        }
+        // a paired row that cannot update its flight adds a new one and removes the old
+        Airplane[] removes = new Airplane[staleCount + insertCount];
+        int removeCount = 0;
+        for (int j = 0; j < m; j++) if (stale[j]) removes[removeCount++] = flights.get(j);
+
+        // phase 4: one model transaction; the last chance to cancel without touching the model
+        monitor.checkCancelled();
+        int[] counts = { 0, 0, 0, unchanged }; // registered, updated, removed, unchanged
+        int changes = insertCount + staleCount;
+        int adds = insertCount;
+        int removals = removeCount;
+        monitor.begin("Registering", changes);
+        model.batch(b -> {
+            int k = 0;
+            // new flights: cancellable, as removing them again leaves no trace
+            for (int x = 0; x < adds; x++) {
+                if (replaces[x] != null) continue;
+                if ((k & PROGRESS_MASK) == 0) {
+                    if (monitor.isCancelled()) {
+                        // added and removed in one batch: the delta cancels out; newest first
+                        for (int y = x - 1; y >= 0; y--) if (replaces[y] == null && inserts[y] != null) b.removeFlight(inserts[y]);
+                        monitor.checkCancelled();
+                    }
+                    monitor.worked(Math.min(PROGRESS_MASK + 1, changes - k));
+                }
+                k++;
+                Airplane ap = inserts[x];
+                String error = missingAirport(ap);
+                if (error != null) {
+                    report.reject(insertRows[x], error);
+                    inserts[x] = null;
+                } else if (b.addFlightIfAbsent(ap)) {
+                    counts[0]++;
+                } else {
+                    inserts[x] = null;
+                    counts[3]++; // registered by another writer meanwhile
+                }
+            }
+            // updates and removals: past the point of cancelling
+            int removeAt = removals;
+            for (int x = 0; x < adds; x++) {
+                Airplane f = replaces[x];
+                if (f == null) continue;
+                worked(monitor, k++, changes);
+                Airplane ap = inserts[x];
+                String error = missingAirport(ap);
+                if (error != null) {
+                    report.reject(insertRows[x], error);
+                    removes[removeAt++] = f;
+                    continue;
+                }
+                if (b.updateFlight(f, ap)) {
+                    counts[1]++;
+                    continue;
+                }
+                // the stale flight goes with the removals
+                removes[removeAt++] = f;
+                if (b.addFlightIfAbsent(ap)) counts[0]++;
+                else counts[3]++;
+            }
+            for (int x = 0; x < removeAt; x++) {
+                worked(monitor, k++, changes);
+                if (b.removeFlight(removes[x])) counts[2]++;
+            }
+        });
+        return report.build(counts[0], counts[1], counts[2], counts[3]);
+    }
+
+    /** Reports progress every 4096 changes. */
+    private static void worked(ProgressMonitor monitor, int k, int changes) {
+        if ((k & PROGRESS_MASK) == 0) monitor.worked(Math.max(0, Math.min(PROGRESS_MASK + 1, changes - k)));
+    }
+
+    /** Error message if an airport of the flight is no longer registered, else null. */
+    private String missingAirport(Airplane ap) {
+        if (model.getAirport(ap.getFrom().getCodeId()) != ap.getFrom()) {
+            return "Departure airport (" + ap.getFrom().getCode() + ") does not exist.";
+        }
+        if (model.getAirport(ap.getTo().getCodeId()) != ap.getTo()) {
+            return "Destination airport (" + ap.getTo().getCode() + ") does not exist.";
+        }
+        return null;
+    }
+
+    private static long recordOf(Airplane f) {
+        return ScheduleStore.pack(f.getFrom().getCodeId(), f.getTo().getCodeId(), f.getDepartureInMinutes(), f.getDuration());
+    }
+
+    /**
+     * Registers many airports in two phases, like registerFlights: rows are
+     * validated in parallel against the current airports and each other (same
+     * code, or same coordinates at the 3 decimals of the CSV format), then all
+     * accepted rows are registered as one model batch.
+     *
+     * @param width drawing width of the airports
+     * @return registered count and the rejected rows, by index in rows
+     */
+    public RegistrationReport registerAirports(List<AirportRow> rows, int width) {
+        return registerAirports(rows, width, new ProgressMonitor());
+    }
+
+    /**
+     * Like registerAirports(rows, width), with progress and cancellation as
+     * in registerFlights(rows, width, monitor).
+     *
+     * @throws CancellationException if the monitor was cancelled
+     */
+    public RegistrationReport registerAirports(List<AirportRow> rows, int width, ProgressMonitor monitor) {
+        int n = rows.size();
+        monitor.begin("Validating", n);
+        Airport[] accepted = new Airport[n];
+        int parts = partsFor(n);
+        RegistrationReport.Builder[] rejected = new RegistrationReport.Builder[parts];
+
+        IntStream.range(0, parts).parallel().forEach(p -> {
+            RegistrationReport.Builder out = rejected[p] = new RegistrationReport.Builder();
+            for (int i = (int) ((long) n * p / parts), end = (int) ((long) n * (p + 1) / parts); i < end; i++) {
+                if ((i & PROGRESS_MASK) == 0) {
+                    monitor.checkCancelled();
+                    monitor.worked(Math.min(PROGRESS_MASK + 1, end - i));
+                }
+                AirportRow row = rows.get(i);
+                try {
+                    accepted[i] = checkNewAirport(row.getX(), row.getY(), width, row.getName(), row.getCode());
+                } catch (ValidationException ve) {
+                    out.reject(i, ve.getMessage());
+                }
+            }
+        });
+
+        RegistrationReport.Builder report = new RegistrationReport.Builder();
+        for (RegistrationReport.Builder b : rejected) report.addAll(b);
+        // few rows: duplicates within the batch are found at commit, in row order
+        int[] registered = { 0 };
+        monitor.begin("Registering", n);
+        model.batch(b -> {
+            for (int i = 0; i < n; i++) {
+                if ((i & PROGRESS_MASK) == 0) {
+                    if (monitor.isCancelled()) {
+                        for (int j = i - 1; j >= 0; j--) if (accepted[j] != null) b.removeAirport(accepted[j].getCode());
+                        monitor.checkCancelled();
+                    }
+                    monitor.worked(Math.min(PROGRESS_MASK + 1, n - i));
+                }
+                Airport a = accepted[i];
+                if (a == null) continue;
+                if (model.getAirport(a.getCodeId()) != null) {
+                    accepted[i] = null;
+                    report.reject(i, "Airport with code " + a.getCode() + " already exists.");
+                } else if (model.getAirportAt(a.getNsX(), a.getNsY()) != null) {
+                    accepted[i] = null;
+                    report.reject(i, duplicatePosition(a));
+                } else {
+                    b.addAirport(a);
+                    registered[0]++;
+                }
+            }
+        });
+        return report.build(registered[0]);
+    }
+
+    /**
+     * Runs the work as one model transaction: everything registered inside it is
+     * published together and listeners are notified once. Registrations that fail
+     * validation do not affect the others.
+     *
+     * @return the combined change
+     */
+    public ModelDelta inBatch(Runnable work) {
+        return model.batch(b -> work.run());
+    }
+
+    /** Removes all airports and flights (joins an open batch). */
+    public void clearAll() {
+        model.clearAll();
+    }
+
+    /** The current model snapshot: airports and flights of one version. */
+    public SimulationModel.Snapshot getSnapshot() {
+        return model.getSnapshot();
+    }
+
+    /** Read-only snapshot of airports (immutable, no copy). */
     public List<Airport> getAirportsSnapshot() {
-        return new ArrayList<>(model.getAirports());
+        return model.getSnapshot().getAirports();
     }
 
-    /** Read-only snapshot copy of flights. */
+    /** Read-only snapshot of flights (immutable, no copy). */
     public List<Airplane> getFlightsSnapshot() {
-        return new ArrayList<>(model.getFlights());
+        return model.getSnapshot().getFlights();
+    }
+
+    /**
+     * Copy of the airport code table. Read from the live table rather than the
+     * snapshot, so airports registered earlier in an open batch are included.
+     */
+    private Airport[] frozenAirports() {
+        Airport[] byCode = new Airport[AirportCodes.TABLE_SIZE];
+        for (int id = 0; id < byCode.length; id++) byCode[id] = model.getAirport(id);
+        return byCode;
+    }
+
+    private static int partsFor(int rows) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        return Math.max(1, Math.min(rows / MIN_ROWS_PER_PART, cores * 4));
+    }
+
+    /**
+     * Indexes sorted into parts (by record hash) by parallel range tasks.
+     * Each task fills its own list per part, so no locking is needed, and a
+     * part read range by range sees its indexes in increasing order.
+     */
+    private static final class Buckets {
+        private final int[][][] items; // [range][part]
+        private final int[][] sizes;
+
+        Buckets(int parts) {
+            items = new int[parts][parts][16];
+            sizes = new int[parts][parts];
+        }
+
+        /** Called only by the task of the range. */
+        void add(int range, int part, int index) {
+            int size = sizes[range][part];
+            if (size == items[range][part].length) items[range][part] = Arrays.copyOf(items[range][part], size * 2);
+            items[range][part][size] = index;
+            sizes[range][part] = size + 1;
+        }
+
+        int[] get(int range, int part) { return items[range][part]; }
+
+        int size(int range, int part) { return sizes[range][part]; }
+    }
+
+    /**
+     * Open-addressing map from packed flight records to ints, where -1 reads
+     * as absent; records are never 0 (duration >= 1), so 0 marks a free slot.
+     */
+    private static final class RecordMap {
+        private long[] keys = new long[1024];
+        private int[] values = new int[1024];
+        private int size;
+
+        static int hash(long r) {
+            long h = r * 0x9E3779B97F4A7C15L;
+            return (int) (h >>> 33);  // non-negative
+        }
+
+        /** Value of the record, or -1. */
+        int get(long r) {
+            int i = slot(keys, r);
+            return keys[i] == r ? values[i] : -1;
+        }
+
+        /** Maps the record to the value, unless mapped; returns the previous value, or -1. */
+        int putIfAbsent(long r, int value) {
+            int i = slot(keys, r);
+            if (keys[i] == r) return values[i];
+            put(i, r, value);
+            return -1;
+        }
+
+        /** Maps the record to the value. */
+        void put(long r, int value) {
+            int i = slot(keys, r);
+            if (keys[i] == r) values[i] = value;
+            else put(i, r, value);
+        }
+
+        private void put(int i, long r, int value) {
+            keys[i] = r;
+            values[i] = value;
+            if (++size * 2 >= keys.length) grow();
+        }
+
+        private static int slot(long[] keys, long r) {
+            int mask = keys.length - 1;
+            // rehash the low bits: the part index already used hash(r) modulo the part count
+            int i = Long.hashCode(r * 0xC2B2AE3D27D4EB4FL) & mask;
+            while (keys[i] != r && keys[i] != 0) i = (i + 1) & mask;
+            return i;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] == 0) continue;
+                int i = slot(keys, oldKeys[j]);
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
     }
 }
@@ -0,0 +1,263 @@
+package gui.simulation;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import gui.models.Airplane;
+import gui.models.Airport;
+import gui.models.AirportCodes;
+import gui.models.SimulationModel;
+
+/**
+ * Departure plan compiled from a model snapshot when a run starts.
+ *
+ * Flight ids are indices into the snapshot's flight list. The departures of
+ * each airport are kept in an int array sorted by departure minute, with a
+ * cursor per airport. Dispatching is a cursor advance and resetting a run
+ * only rewinds the cursors, so restarting does not depend on the number of
+ * flights. Flights appended to the model during a run are merged into the
+ * arrays of their airports (see append). Used by a single simulation thread.
+ */
+public final class DepartureSchedule {
+
+    /** Rule: minimum minutes between two departures from the same airport. */
+    public static final int SEPARATION_MINUTES = 10;
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final long NEVER = Long.MIN_VALUE / 2;
+
+    private long version;
+    private final List<Airport> airports;   // airport slot -> airport
+    private List<Airplane> flights;         // flight id -> flight
+    private final int[] slotByCode;         // encoded airport code -> slot, or -1
+    private final int[][] order;            // per slot: flight ids, sorted by departure
+    private final int[][] departure;        // per slot: departure minute, parallel to order
+    private final int[] size;               // per slot: entries used in order/departure
+    private final int[] cursor;             // per slot: next entry to dispatch
+    private final long[] lastSent;          // per slot: take-off time of the last departure
+    private int entries;                    // entries of all slots
+    private int remaining;                  // entries not dispatched yet
+    private boolean rewindable = true;      // see canRewind
+
+    private DepartureSchedule(long version, List<Airport> airports, List<Airplane> flights, int[] slotByCode) {
+        int slots = airports.size();
+        this.version = version;
+        this.airports = airports;
+        this.flights = flights;
+        this.slotByCode = slotByCode;
+        this.order = new int[slots][];
+        this.departure = new int[slots][];
+        this.size = new int[slots];
+        this.cursor = new int[slots];
+        this.lastSent = new long[slots];
+    }
+
+    /** Compiles the departures of a snapshot, with every airport ready to send. */
+    public static DepartureSchedule compile(SimulationModel.Snapshot snap) {
+        return build(snap, null, null);
+    }
+
+    /**
+     * Compiles a newer snapshot during a run. Flights already dispatched in
+     * the run are left out and the separation state of each airport is
+     * carried over, so the run continues where it was. For snapshots that
+     * only appended flights, append is much cheaper.
+     */
+    public DepartureSchedule recompile(SimulationModel.Snapshot snap) {
+        // known flights not waiting here departed already, under this or an earlier schedule
+        Map<Airplane, Boolean> departed = new IdentityHashMap<>();
+        for (Airplane f : flights) departed.put(f, Boolean.TRUE);
+        Map<Airport, Long> sent = new IdentityHashMap<>();
+        for (int slot = 0; slot < cursor.length; slot++) {
+            for (int k = cursor[slot]; k < size[slot]; k++) departed.remove(flights.get(order[slot][k]));
+            sent.put(airports.get(slot), lastSent[slot]);
+        }
+        DepartureSchedule ds = build(snap, departed, sent);
+        ds.rewindable = false;
+        return ds;
+    }
+
+    private static DepartureSchedule build(SimulationModel.Snapshot snap,
+                                           Map<Airplane, Boolean> skip, Map<Airport, Long> sent) {
+        List<Airport> airports = snap.getAirports();
+        List<Airplane> flights = snap.getFlights();
+        int slots = airports.size();
+        int n = flights.size();
+
+        int[] slotByCode = new int[AirportCodes.TABLE_SIZE];
+        Arrays.fill(slotByCode, -1);
+        for (int s = 0; s < slots; s++) slotByCode[airports.get(s).getCodeId()] = s;
+        DepartureSchedule ds = new DepartureSchedule(snap.getVersion(), airports, flights, slotByCode);
+
+        // flight id -> slot (or -1 when its airport is gone or it already departed)
+        int[] slotOf = new int[n];
+        int[] minuteCount = new int[MINUTES_PER_DAY + 1];
+        int entries = 0;
+        for (int id = 0; id < n; id++) {
+            Airplane f = flights.get(id);
+            int s = ds.slotOf(f);
+            if (s >= 0 && skip != null && skip.containsKey(f)) s = -1;
+            slotOf[id] = s;
+            if (s >= 0) {
+                minuteCount[f.getDepartureInMinutes() + 1]++;
+                ds.size[s]++;
+                entries++;
+            }
+        }
+
+        // Pass 1: counting sort of flight ids by departure minute
+        for (int m = 0; m < MINUTES_PER_DAY; m++) minuteCount[m + 1] += minuteCount[m];
+        int[] byMinute = new int[entries];
+        for (int id = 0; id < n; id++) {
+            if (slotOf[id] >= 0) byMinute[minuteCount[flights.get(id).getDepartureInMinutes()]++] = id;
+        }
+
+        // Pass 2: stable distribution into airport slots keeps departure order
+        for (int s = 0; s < slots; s++) {
+            ds.order[s] = new int[ds.size[s]];
+            ds.departure[s] = new int[ds.size[s]];
+        }
+        int[] fill = new int[slots];
+        for (int id : byMinute) {
+            int s = slotOf[id];
+            int k = fill[s]++;
+            ds.order[s][k] = id;
+            ds.departure[s][k] = flights.get(id).getDepartureInMinutes();
+        }
+        ds.entries = entries;
+
+        ds.reset();
+        if (sent != null) {
+            for (int s = 0; s < slots; s++) {
+                Long t = sent.get(airports.get(s));
+                if (t != null) ds.lastSent[s] = t;
+            }
+        }
+        return ds;
+    }
+
+    // slot of the flight's departure airport, or -1 if that airport is not in the schedule
+    private int slotOf(Airplane f) {
+        Airport src = f.getFrom();
+        int s = slotByCode[src.getCodeId()];
+        return (s >= 0 && airports.get(s) == src) ? s : -1;
+    }
+
+    /**
+     * Merges the flights a newer snapshot appended into the airports' not yet
+     * dispatched departures, keeping flight ids, cursors and separation state.
+     * Costs O(k log k) for k new flights plus the undispatched departures of
+     * the airports they leave from. The snapshot must extend the schedule's
+     * (see SimulationModel.Snapshot#getRewriteVersion).
+     *
+     * @throws IllegalArgumentException if the snapshot does not extend this schedule's
+     */
+    public void append(SimulationModel.Snapshot snap) {
+        List<Airplane> next = snap.getFlights();
+        int first = flights.size();
+        if (snap.getRewriteVersion() > version || next.size() < first) {
+            throw new IllegalArgumentException("snapshot " + snap.getVersion() + " does not extend version " + version);
+        }
+        // new entries sorted by (slot, departure, id): slot 15 bits | minute 11 bits | id 31 bits
+        long[] added = new long[next.size() - first];
+        int k = 0;
+        for (int id = first; id < next.size(); id++) {
+            Airplane f = next.get(id);
+            int s = slotOf(f);
+            if (s >= 0) added[k++] = ((long) s << 42) | ((long) f.getDepartureInMinutes() << 31) | id;
+        }
+        Arrays.sort(added, 0, k);
+        for (int i = 0; i < k; ) {
+            int s = (int) (added[i] >>> 42);
+            int j = i;
+            while (j < k && (int) (added[j] >>> 42) == s) j++;
+            merge(s, added, i, j);
+            i = j;
+        }
+        entries += k;
+        remaining += k;
+        flights = next;
+        version = snap.getVersion();
+        rewindable = false;
+    }
+
+    // merges added[from, to) into the undispatched part of the slot, from the back
+    private void merge(int s, long[] added, int from, int to) {
+        int n = size[s], count = to - from;
+        if (n + count > order[s].length) {
+            int capacity = Math.max(n + count, order[s].length + (order[s].length >> 1));
+            order[s] = Arrays.copyOf(order[s], capacity);
+            departure[s] = Arrays.copyOf(departure[s], capacity);
+        }
+        int[] ids = order[s], minutes = departure[s];
+        int i = n - 1, j = to - 1;
+        for (int w = n + count - 1; j >= from; w--) {
+            int minute = (int) (added[j] >>> 31) & 0x7FF;
+            // equal minutes: the flight already planned goes first
+            if (i >= cursor[s] && minutes[i] > minute) {
+                ids[w] = ids[i];
+                minutes[w] = minutes[i--];
+            } else {
+                ids[w] = (int) added[j--] & Integer.MAX_VALUE;
+                minutes[w] = minute;
+            }
+        }
+        size[s] = n + count;
+    }
+
+    /**
+     * False for a schedule recompiled or extended during a run: it lacks the
+     * flights already dispatched, or keeps late additions out of departure
+     * order, so a restarted run needs a freshly compiled schedule.
+     */
+    public boolean canRewind() { return rewindable; }
+
+    /** Rewinds all airports to the start of the day. */
+    public void reset() {
+        Arrays.fill(cursor, 0);
+        Arrays.fill(lastSent, NEVER);
+        remaining = entries;
+    }
+
+    /**
+     * Attempts to send the next airplane from an airport. The flight takes
+     * off at its scheduled minute or, if the separation rule holds it back,
+     * SEPARATION_MINUTES after the previous take-off there; that may lie
+     * before the current time when the simulation steps by several minutes
+     * (see getLastTakeOff). Call again until it returns -1 to send every
+     * flight due by the current time.
+     *
+     * @param slot                    airport slot (0 .. getAirportCount()-1)
+     * @param currentSimTimeInMinutes current simulated time in minutes
+     * @return id of the flight ready to take off, or -1 if none can take off yet
+     */
+    public int dispatch(int slot, long currentSimTimeInMinutes) {
+        int c = cursor[slot];
+        if (c >= size[slot]) return -1;
+        long takeOff = Math.max(departure[slot][c], lastSent[slot] + SEPARATION_MINUTES);
+        if (takeOff > currentSimTimeInMinutes) return -1;
+        cursor[slot] = c + 1;
+        lastSent[slot] = takeOff;
+        remaining--;
+        return order[slot][c];
+    }
+
+    /** Take-off time of the flight last dispatched from the airport, in simulated minutes. */
+    public long getLastTakeOff(int slot) { return lastSent[slot]; }
+
+    /** Model version the schedule was compiled from, or last appended from. */
+    public long getVersion() { return version; }
+
+    public int getAirportCount() { return cursor.length; }
+
+    /** Number of flights not dispatched yet. */
+    public int getRemaining() { return remaining; }
+
+    /** Flights by id: the flight list of the compiled snapshot. */
+    public List<Airplane> getFlights() { return flights; }
+
+    /** Returns the flight with the given id. */
+    public Airplane getFlight(int id) { return flights.get(id); }
+}
@@ -2,17 +2,34 @@ package gui.simulation;
 
 import java.awt.*;
 import java.awt.event.*;
-
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import gui.dialogs.ImportProgressDialog;
+import gui.dialogs.ResultDialog;
 import gui.dialogs.airport.ExportAirportsDialog;
 import gui.dialogs.airport.ImportAirportsDialog;
 import gui.dialogs.airport.NewAirportDialog;
 import gui.dialogs.flight.ExportFlightsDialog;
 import gui.dialogs.flight.ImportFlightsDialog;
 import gui.dialogs.flight.NewFlightDialog;
+import gui.dialogs.flight.WatchFlightsDialog;
+import gui.dialogs.schedule.ExportResultsDialog;
+import gui.dialogs.schedule.OpenScheduleDialog;
+import gui.dialogs.schedule.SaveScheduleDialog;
 import gui.idle.IdleManager;
+import gui.io.FlightFeedWatcher;
+import gui.io.ImportReport;
 import gui.models.Airplane;
 import gui.models.Airport;
+import gui.models.FlightTimes;
+import gui.models.ModelDelta;
 import gui.models.SimulationModel;
+import gui.render.HeatmapLayer;
 import gui.service.RegistrationService;
 import gui.timer.MyTimer;
 
@@ -32,10 +49,21 @@ public class FlightSimulation extends Frame {
     private final Panel centerPanel = new Panel();
     private final Panel rightPanel = new Panel();
 
-    // Right panel sub-panels
-    private final Panel airportPanel = new Panel(); 
-    private final Panel flightsPanel = new Panel(); 
-    
+    // Right panel lists (virtualized, painted from the model)
+    private final VirtualListView<Airport> airportList =
+            new VirtualListView<>(Airport::toString, Airport::isVisible);
+    private final VirtualListView<Airplane> flightList =
+            new VirtualListView<>(Airplane::toString, null);
+    private boolean listRefreshPending = false;
+    private long listedVersion = -1;
+    private long deltaVersion = -1;          // toVersion of the last delta received
+    private boolean needsFullRefresh = true; // a received delta was not append-only
+
+    private TextField airportFilterField;
+    private TextField flightFilterField;
+    private TextField flightFromField;
+    private TextField flightToField;
+
     private Button startBtn;
     private Button pauseBtn;
     private Button stopBtn;
@@ -43,10 +71,31 @@ public class FlightSimulation extends Frame {
     private Label timeLabel;
     
     private IdleManager idleManager;
+
+    // Live-appended flights file, if one is followed
+    private FlightFeedWatcher feedWatcher;
+    private MenuItem stopFeedItem;
+    private MenuItem feedProblemsItem;
+    private Label feedLabel;
+    private long feedRegistered, feedRejected;
+    private String feedError;
+    // latest rejected rows and read failures of the feed, oldest dropped first
+    private final ArrayDeque<String> feedProblems = new ArrayDeque<>();
+    private static final int MAX_FEED_PROBLEMS = 1000;
+
+    // Imports run here, one at a time, off the event thread
+    private final ExecutorService importExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "import");
+        t.setDaemon(true);
+        return t;
+    });
     
     private MyTimer myTimer;
     private final RegistrationService service;
 
+    // Traffic density overlay; half-life of one simulated hour
+    private final HeatmapLayer heatmap = new HeatmapLayer(60.0);
+
     public FlightSimulation() {
         super("Flight Simulation");
         setBounds(250, 100, 1000, 650);
@@ -62,6 +111,8 @@ public class FlightSimulation extends Frame {
 
         populateWindow();
         setupWindowClosing();
+        model.addListener(this::scheduleListRefresh);
+        refreshLists();
 
         setVisible(true);
     }
@@ -96,7 +147,50 @@ public class FlightSimulation extends Frame {
         flightsMenu.add(importFlight);
         flightsMenu.add(exportFlight);
 
+        MenuItem watchFeed = new MenuItem("Watch CSV feed");
+        stopFeedItem = new MenuItem("Stop watching feed");
+        stopFeedItem.setEnabled(false);
+        feedProblemsItem = new MenuItem("Show feed problems");
+        feedProblemsItem.setEnabled(false);
+        watchFeed.addActionListener(ae -> new WatchFlightsDialog(this, service));
+        stopFeedItem.addActionListener(ae -> stopFlightFeed());
+        feedProblemsItem.addActionListener(ae ->
+                new ResultDialog(this, "Flight feed problems", new ArrayList<>(feedProblems)));
+        flightsMenu.addSeparator();
+        flightsMenu.add(watchFeed);
+        flightsMenu.add(stopFeedItem);
+        flightsMenu.add(feedProblemsItem);
+
         menuBar.add(flightsMenu);
+
+        Menu scheduleMenu = new Menu("Schedule");
+        MenuItem openSchedule = new MenuItem("Open binary schedule");
+        MenuItem saveSchedule = new MenuItem("Save binary schedule");
+        MenuItem exportResults = new MenuItem("Export run results");
+
+        openSchedule.addActionListener(ae -> new OpenScheduleDialog(this, service));
+        saveSchedule.addActionListener(ae -> new SaveScheduleDialog(this, service));
+        exportResults.addActionListener(ae -> new ExportResultsDialog(this, service));
+
+        scheduleMenu.add(openSchedule);
+        scheduleMenu.add(saveSchedule);
+        scheduleMenu.addSeparator();
+        scheduleMenu.add(exportResults);
+        menuBar.add(scheduleMenu);
+
+        Menu viewMenu = new Menu("View");
+        CheckboxMenuItem showHeatmap = new CheckboxMenuItem("Traffic heatmap", false);
+        showHeatmap.addItemListener(ie -> {
+            HeatmapLayer layer = showHeatmap.getState() ? heatmap : null;
+            controller.setHeatmap(layer);
+            map.setHeatmap(layer);
+        });
+        viewMenu.add(showHeatmap);
+        CheckboxMenuItem showInset = new CheckboxMenuItem("Zoomed inset", false);
+        showInset.addItemListener(ie -> map.setInsetEnabled(showInset.getState()));
+        viewMenu.add(showInset);
+        menuBar.add(viewMenu);
+
         setMenuBar(menuBar);
 
         // Center panel: map
@@ -110,32 +204,44 @@ public class FlightSimulation extends Frame {
         rightPanel.setPreferredSize(new Dimension(240,0));
 
         // Airports section
-        Panel apTitle = new Panel(new FlowLayout(FlowLayout.LEFT));
-        apTitle.add(new Label("Airports"));
+        Panel apTitle = new Panel(new BorderLayout(4, 0));
+        apTitle.add(new Label("Airports"), BorderLayout.WEST);
+        airportFilterField = new TextField(8);
+        airportFilterField.addTextListener(te -> applyAirportFilter());
+        apTitle.add(airportFilterField, BorderLayout.CENTER);
         rightPanel.add(apTitle, BorderLayout.NORTH);
 
-        airportPanel.setLayout(new GridLayout(0,1,4,4));
-        ScrollPane airportScroll = new ScrollPane(ScrollPane.SCROLLBARS_AS_NEEDED);
-        Panel airportContainer = new Panel(new BorderLayout());
-        airportContainer.add(airportPanel, BorderLayout.NORTH);
-        airportScroll.add(airportContainer);
-        rightPanel.add(airportScroll, BorderLayout.CENTER);
+        airportList.setOnRowClicked(a -> {
+            a.setVisible(!a.isVisible());
+            airportList.refresh();
+            map.repaint();
+        });
+        rightPanel.add(airportList, BorderLayout.CENTER);
 
         // Flights section
         Panel flightsContainer = new Panel(new BorderLayout());
-        Panel flightsTitle = new Panel(new FlowLayout(FlowLayout.LEFT));
-        flightsTitle.add(new Label("Flights"));
+        Panel flightsTitle = new Panel(new GridLayout(0, 1));
+        Panel codeRow = new Panel(new BorderLayout(4, 0));
+        codeRow.add(new Label("Flights"), BorderLayout.WEST);
+        flightFilterField = new TextField(8);
+        codeRow.add(flightFilterField, BorderLayout.CENTER);
+        Panel timeRow = new Panel(new FlowLayout(FlowLayout.LEFT, 4, 0));
+        flightFromField = new TextField(5);
+        flightToField = new TextField(5);
+        timeRow.add(new Label("From"));
+        timeRow.add(flightFromField);
+        timeRow.add(new Label("To"));
+        timeRow.add(flightToField);
+        flightsTitle.add(codeRow);
+        flightsTitle.add(timeRow);
         flightsContainer.add(flightsTitle, BorderLayout.NORTH);
 
-        flightsPanel.setLayout(new GridLayout(0,1));
-        Panel flightsListHolder = new Panel(new BorderLayout());
-        flightsListHolder.add(flightsPanel, BorderLayout.NORTH);
-
-        ScrollPane flightsScroll = new ScrollPane(ScrollPane.SCROLLBARS_AS_NEEDED);
-        flightsScroll.add(flightsListHolder);
+        flightFilterField.addTextListener(te -> applyFlightFilter());
+        flightFromField.addTextListener(te -> applyFlightFilter());
+        flightToField.addTextListener(te -> applyFlightFilter());
 
         Panel flightsSouth = new Panel(new BorderLayout());
-        flightsSouth.add(flightsScroll, BorderLayout.CENTER);
+        flightsSouth.add(flightList, BorderLayout.CENTER);
         flightsSouth.setPreferredSize(new Dimension(240,250));
 
         // Controls
@@ -157,6 +263,9 @@ public class FlightSimulation extends Frame {
         Panel timePanel = new Panel(new FlowLayout(FlowLayout.CENTER));
         timePanel.add(timeLabel);
 
+        feedLabel = new Label(" ");
+        timePanel.add(feedLabel);
+
         controlsPanel.add(buttonsPanel, BorderLayout.NORTH);
         controlsPanel.add(timePanel, BorderLayout.SOUTH);
         flightsSouth.add(controlsPanel, BorderLayout.SOUTH);
@@ -224,30 +333,198 @@ public class FlightSimulation extends Frame {
                 if (controller != null) controller.stop();
                 if (map != null) map.dispose();
                 if (idleManager != null) idleManager.stop();
+                stopFlightFeed();
+                importExecutor.shutdownNow();
                 dispose();
             }
         });
     }
 
+    /** Called by dialogs after an airport was registered; lists follow the model on their own. */
     public void registerAirport(Airport a) {
-        Checkbox cb = new Checkbox(a.toString(), true);
-        airportPanel.add(cb);
-        cb.addItemListener(e -> {
-            boolean checked = cb.getState();
-            a.setVisible(checked);
-            map.repaint();
+        updateControlButtons();
+    }
+
+    /** Called by dialogs after a flight was registered; lists follow the model on their own. */
+    public void registerFlight(Airplane a) {
+        updateControlButtons();
+    }
+
+    /**
+     * Follows a flights CSV file, replacing any file followed before.
+     *
+     * @param onlyNewRows on the first run for this file, skip the rows already in it
+     * @throws IOException if the file cannot be watched
+     */
+    public void watchFlightFeed(Path file, boolean onlyNewRows) throws IOException {
+        stopFlightFeed();
+        feedRegistered = 0;
+        feedRejected = 0;
+        feedError = null;
+        feedProblems.clear();
+        feedProblemsItem.setEnabled(false);
+        feedWatcher = new FlightFeedWatcher(file, service, 10, onlyNewRows, new FlightFeedWatcher.Listener() {
+            public void rowsAppended(ImportReport report) {
+                EventQueue.invokeLater(() -> onFeedRows(report));
+            }
+
+            public void failed(String message, boolean stopped) {
+                EventQueue.invokeLater(() -> onFeedFailed(message, stopped));
+            }
         });
+        feedWatcher.start();
+        stopFeedItem.setEnabled(true);
+        showFeedStatus("Feed: watching");
+    }
 
-        map.repaint();
-        validate();
-        repaint();
+    private void stopFlightFeed() {
+        if (feedWatcher == null) return;
+        try {
+            feedWatcher.close();
+        } catch (IOException ex) {
+            // closing the watch service; nothing left to do
+        }
+        feedWatcher = null;
+        stopFeedItem.setEnabled(false);
+        feedError = null;
+        showFeedStatus(" ");
     }
 
-    public void registerFlight(Airplane a) {
-        flightsPanel.add(new Label(a.toString()));
+    private void onFeedRows(ImportReport report) {
+        if (feedWatcher == null) return; // stopped meanwhile
+        feedRegistered += report.getRegistered();
+        feedRejected += report.getRejected();
+        feedError = null;
+        showFeedStatus("Feed: +" + feedRegistered + (feedRejected > 0 ? ", " + feedRejected + " rejected" : ""));
+        for (String m : report.toMessages(MAX_FEED_PROBLEMS)) addFeedProblem(m);
         updateControlButtons();
+    }
+
+    /** Times of the flights of the current or last run, or null if none was run; see SimulationController. */
+    public FlightTimes getRunResults() {
+        return controller.getFlightTimes();
+    }
+
+    private void onFeedFailed(String message, boolean stopped) {
+        if (feedWatcher == null) return;
+        addFeedProblem("Error: " + message);
+        if (stopped) {
+            stopFlightFeed();
+            feedError = "Feed stopped: " + message;
+        } else {
+            feedError = "Feed: " + message;
+        }
+        showFeedStatus(feedError);
+    }
+
+    private void addFeedProblem(String message) {
+        if (feedProblems.size() == MAX_FEED_PROBLEMS) feedProblems.removeFirst();
+        feedProblems.addLast(message);
+        feedProblemsItem.setEnabled(true);
+    }
+
+    // errors in red; a failure keeps showing until rows arrive again
+    private void showFeedStatus(String text) {
+        boolean error = feedError != null;
+        feedLabel.setText(error ? feedError : text);
+        feedLabel.setForeground(error ? Color.RED : Color.BLACK);
+        feedLabel.invalidate();
         validate();
-        repaint();
+    }
+
+    /** Called by import dialogs after a bulk registration. */
+    public void registrationsImported() {
+        updateControlButtons();
+    }
+
+    /**
+     * Runs an import in the background behind a modal progress dialog. The
+     * idle countdown is held while it runs.
+     */
+    public void runImport(String title, ImportProgressDialog.Task task) {
+        idleManager.beginWork();
+        new ImportProgressDialog(this, title, importExecutor, task, () -> {
+            idleManager.endWork();
+            registrationsImported();
+        });
+    }
+
+    /**
+     * Model listener: coalesces any number of model changes into a single
+     * list refresh on the event thread.
+     */
+    private void scheduleListRefresh(ModelDelta delta) {
+        synchronized (this) {
+            if (!delta.isAppendOnly()) needsFullRefresh = true;
+            deltaVersion = Math.max(deltaVersion, delta.getToVersion());
+            if (listRefreshPending) return;
+            listRefreshPending = true;
+        }
+        EventQueue.invokeLater(this::refreshLists);
+    }
+
+    private void refreshLists() {
+        synchronized (this) {
+            listRefreshPending = false;
+        }
+        SimulationModel.Snapshot snap = model.getSnapshot();
+        boolean full;
+        synchronized (this) {
+            // a snapshot newer than the last delta seen may contain anything
+            full = needsFullRefresh || snap.getVersion() > deltaVersion;
+            if (deltaVersion <= snap.getVersion()) needsFullRefresh = false;
+        }
+        if (snap.getVersion() != listedVersion) {
+            listedVersion = snap.getVersion();
+            if (full) {
+                airportList.setItems(snap.getAirports());
+                flightList.setItems(snap.getFlights());
+            } else {
+                // only appends since the listed version: filter just the new rows
+                airportList.appendItems(snap.getAirports());
+                flightList.appendItems(snap.getFlights());
+            }
+        }
+        updateControlButtons();
+    }
+
+    private void applyAirportFilter() {
+        String code = airportFilterField.getText().trim().toUpperCase();
+        airportList.setFilter(code.isEmpty() ? null
+                : a -> a.getCode().contains(code) || a.getName().toUpperCase().contains(code));
+    }
+
+    /** Filters flights by airport code (either end) and departure time window. */
+    private void applyFlightFilter() {
+        String code = flightFilterField.getText().trim().toUpperCase();
+        int from = parseMinutes(flightFromField.getText(), 0);
+        int to = parseMinutes(flightToField.getText(), 24 * 60 - 1);
+        if (code.isEmpty() && from == 0 && to == 24 * 60 - 1) {
+            flightList.setFilter(null);
+            return;
+        }
+        flightList.setFilter(f -> {
+            int dep = f.getDepartureInMinutes();
+            if (from <= to ? (dep < from || dep > to) : (dep < from && dep > to)) return false;
+            return code.isEmpty()
+                    || f.getFrom().getCode().contains(code)
+                    || f.getTo().getCode().contains(code);
+        });
+    }
+
+    /** Parses "HH:MM" (or just "HH") into minutes; returns the default if empty or invalid. */
+    private static int parseMinutes(String text, int def) {
+        String t = text.trim();
+        if (t.isEmpty()) return def;
+        String[] parts = t.split(":");
+        try {
+            int hh = Integer.parseInt(parts[0].trim());
+            int mm = parts.length > 1 && !parts[1].trim().isEmpty() ? Integer.parseInt(parts[1].trim()) : 0;
+            if (hh < 0 || hh > 23 || mm < 0 || mm > 59) return def;
+            return hh * 60 + mm;
+        } catch (NumberFormatException nfe) {
+            return def;
+        }
     }
 
     private void updateControlButtons() {
@@ -260,6 +537,10 @@ public class FlightSimulation extends Frame {
         pauseBtn.setLabel(paused ? "Resume" : "Pause");
     }
 
+    /**
+     * Opens the simulation window. Headless batch runs use gui.cli.BatchRunner
+     * instead, which loads no AWT classes.
+     */
     public static void main(String[] args) {
         new FlightSimulation();
     }
@@ -1,26 +1,50 @@
 package gui.simulation;
 
+import gui.models.ModelDelta;
 import gui.models.SimulationModel;
+import gui.render.HeatmapLayer;
+import gui.render.MapRenderer;
+import gui.render.Projection;
 import gui.timer.MyTimer;
-import gui.models.Airplane;
 import gui.models.Airport;
 
 import java.awt.*;
 import java.awt.event.ComponentAdapter;
 import java.awt.event.ComponentEvent;
 import java.util.Collection;
-import java.util.List;
 
 /**
  * Canvas that renders the current state of the simulation model
  * and active airplanes from the controller. Does not modify the model.
+ * While the simulation runs, a frame timer repaints at about 60 FPS and
+ * aircraft are interpolated between the last two published ticks.
+ * The whole world is shown through the canvas' own projection; optionally
+ * a zoomed inset renders the same model around the last clicked point.
  */
 public class Scene extends Canvas implements SimulationModel.ModelListener {
 
     private final SimulationModel model;
     private SimulationController controller;
+    private final MapRenderer renderer = new MapRenderer();
+    private final MapRenderer insetRenderer = new MapRenderer();
+
+    private static final long FRAME_MS = 16L;
+    private static final double INSET_ZOOM = 4.0;
+    private static final int INSET_MARGIN = 8;
+
+    // Replaced on resize; read by the painting thread
+    private volatile Projection projection = Projection.fit(1, 1);
+
+    private volatile boolean insetEnabled = false;
+    private volatile double insetCenterX, insetCenterY; // world coordinates
+    private Rectangle insetBounds = new Rectangle();
+    private Projection insetProjection;
 
     private MyTimer blinkTimer;
+    private MyTimer frameTimer;
+
+    // Back buffer for flicker-free repaints
+    private Image backBuffer;
 
     /**
      * Constructs a Scene canvas for a given simulation model.
@@ -39,11 +63,11 @@ public class Scene extends Canvas implements SimulationModel.ModelListener {
         });
         blinkTimer.start();
 
-        // Handle resizing to update scaling
+        // Handle resizing: only the projection changes
         addComponentListener(new ComponentAdapter() {
             @Override
             public void componentResized(ComponentEvent e) {
-                updateScaling();
+                projection = Projection.fit(getWidth(), getHeight());
                 repaint();
             }
         });
@@ -56,55 +80,131 @@ public class Scene extends Canvas implements SimulationModel.ModelListener {
             }
         });
 
-        updateScaling();
+        projection = Projection.fit(getWidth(), getHeight());
     }
 
-    /** Updates scaling factors based on current canvas size. */
-    private void updateScaling() {
-        double wFactor = (getWidth() / 2.0) / 100.0;
-        double hFactor = (getHeight() / 2.0) / 100.0;
-        Airport.setScaleFactors(wFactor, hFactor);
-        for (Airport a : model.getAirports()) a.scaleCoordinates();
-    }
-
-    /** Selects an airport at the given pixel coordinates. */
+    /**
+     * Selects an airport at the given pixel coordinates, in the inset if the
+     * click falls inside it. A click on the overview also re-centers the inset.
+     */
     private void selectAirport(int px, int py) {
-        int tx = px - (getWidth() / 2);
-        int ty = py - (getHeight() / 2);
+        Projection p = projection;
+        if (insetEnabled && insetProjection != null && insetBounds.contains(px, py)) {
+            p = insetProjection;
+        } else {
+            insetCenterX = p.toWorldX(px);
+            insetCenterY = p.toWorldY(py);
+        }
         Collection<Airport> airports = model.getAirports();
         for (Airport a : airports) {
-            if (a.containsPoint(tx, ty)) {
+            if (a.containsPoint(p, px, py)) {
                 a.toggleSelected();
             }
         }
+        if (insetEnabled) repaint();
     }
 
-    /** Called when the model changes; triggers repaint. */
+    /** Called when the model changes; repaints if airports changed (flights are drawn from the traffic snapshot). */
     @Override
-    public void modelChanged() {
-        repaint();
+    public void modelChanged(ModelDelta delta) {
+        if (delta.touchesAirports()) repaint();
+    }
+
+    /** Starts the frame timer that repaints at display rate while the simulation runs. */
+    public synchronized void startAnimation() {
+        if (frameTimer != null) return;
+        frameTimer = new MyTimer(FRAME_MS, 1, () -> {
+            SimulationController c = controller;
+            if (c != null && !c.isPaused()) repaint();
+        });
+        frameTimer.start();
+    }
+
+    /** Stops the frame timer. */
+    public synchronized void stopAnimation() {
+        if (frameTimer != null) {
+            frameTimer.stopTimer();
+            frameTimer = null;
+        }
+    }
+
+    /** Renders into a back buffer and blits it, avoiding the default clear-and-paint flicker. */
+    @Override
+    public void update(Graphics g) {
+        int w = getWidth();
+        int h = getHeight();
+        if (w <= 0 || h <= 0) return;
+        if (backBuffer == null || backBuffer.getWidth(null) != w || backBuffer.getHeight(null) != h) {
+            backBuffer = createImage(w, h);
+            if (backBuffer == null) {
+                super.update(g);
+                return;
+            }
+        }
+        Graphics bg = backBuffer.getGraphics();
+        try {
+            bg.setColor(getBackground());
+            bg.fillRect(0, 0, w, h);
+            paint(bg);
+        } finally {
+            bg.dispose();
+        }
+        g.drawImage(backBuffer, 0, 0, null);
     }
 
     /** Paints the airports and active airplanes. */
     @Override
     public void paint(Graphics g) {
-        g.translate(getWidth() / 2, getHeight() / 2);
+        TrafficSnapshot traffic = (controller != null) ? controller.getTrafficSnapshot() : null;
+        double alpha = (traffic != null) ? traffic.alphaAt(System.nanoTime()) : 1.0;
+        Collection<Airport> airports = model.getAirports();
+        renderer.render(g, projection, airports, traffic, alpha);
+        if (insetEnabled) paintInset(g, airports, traffic, alpha);
+    }
 
-        for (Airport a : model.getAirports()) {
-            if (a.isVisible()) a.paint(g);
+    /** Renders the zoomed inset into the bottom-right corner. */
+    private void paintInset(Graphics g, Collection<Airport> airports, TrafficSnapshot traffic, double alpha) {
+        int w = getWidth() / 3;
+        int h = getHeight() / 3;
+        if (w <= 0 || h <= 0) return;
+        int x = getWidth() - w - INSET_MARGIN;
+        int y = getHeight() - h - INSET_MARGIN;
+        Projection overview = projection;
+        Projection inset = Projection.centeredOn(insetCenterX, insetCenterY,
+                INSET_ZOOM * Math.min(overview.getScaleX(), overview.getScaleY()), w, h);
+
+        Graphics ig = g.create(x, y, w, h);
+        try {
+            ig.setColor(getBackground());
+            ig.fillRect(0, 0, w, h);
+            insetRenderer.render(ig, inset, airports, traffic, alpha);
+        } finally {
+            ig.dispose();
         }
+        g.setColor(Color.DARK_GRAY);
+        g.drawRect(x, y, w - 1, h - 1);
 
-        if (controller != null) {
-            List<Airplane> active = controller.getActiveAirplanesSnapshot();
-            for (Airplane ap : active) {
-                ap.paint(g);
-            }
-        }
+        insetBounds = new Rectangle(x, y, w, h);
+        insetProjection = inset.translate(x, y);
+    }
+
+    /** Shows or hides the zoomed inset. */
+    public void setInsetEnabled(boolean enabled) {
+        insetEnabled = enabled;
+        repaint();
+    }
+
+    /** Shows the given density overlay, or hides it when null. */
+    public void setHeatmap(HeatmapLayer heatmap) {
+        renderer.setHeatmap(heatmap);
+        insetRenderer.setHeatmap(heatmap);
+        repaint();
     }
 
-    /** Stops the blink timer and cleans up resources. */
+    /** Stops the blink and frame timers and cleans up resources. */
     public void dispose() {
         if (blinkTimer != null) blinkTimer.stopTimer();
+        stopAnimation();
     }
 
     /** Sets the simulation controller used to access active airplanes. */
@@ -2,22 +2,19 @@ package gui.simulation;
 
 import gui.models.SimulationModel;
 import gui.models.Airplane;
-import gui.models.Airport;
+import gui.models.FlightTimes;
+import gui.render.HeatmapLayer;
 import gui.timer.MyTimer;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Iterator;
 import java.util.List;
 
 /**
  * Simulation owner: manages the simulation loop using MyTimer for fixed ticks.
- * Tracks active airplanes and updates positions on each tick.
+ * Each tick is delegated to a SimulationEngine.
  */
 public class SimulationController {
-    private final SimulationModel model;
     private final Scene sceneForRepaint;
-    private final List<Airplane> activeAirplanes = new ArrayList<>();
+    private final SimulationEngine engine;
 
     private MyTimer simTimer;
 
@@ -27,9 +24,13 @@ public class SimulationController {
     private boolean running = false;
     private boolean paused = false;
 
+    private volatile HeatmapLayer heatmap;
+
+    private FlightTimes lastRun; // times of the last stopped run, kept until the next start
+
     public SimulationController(SimulationModel model, Scene sceneForRepaint) {
-        this.model = model;
         this.sceneForRepaint = sceneForRepaint;
+        this.engine = new SimulationEngine(model, simTickMs * 1_000_000L);
     }
 
     /** Starts the simulation if not already running. */
@@ -38,11 +39,18 @@ public class SimulationController {
 
         running = true;
         paused = false;
-        synchronized (activeAirplanes) { activeAirplanes.clear(); }
+        lastRun = null;
+        engine.reset();
+        HeatmapLayer hm = heatmap;
+        if (hm != null) hm.reset();
 
         // Create and start a new timer
         simTimer = new MyTimer(simTickMs, realToSimRatio, this::tick);
         simTimer.start();
+
+        if (sceneForRepaint != null) {
+            sceneForRepaint.startAnimation();
+        }
     }
 
     /** Toggles pause/resume state of the simulation. */
@@ -69,15 +77,11 @@ public class SimulationController {
             simTimer = null;
         }
 
-        synchronized (activeAirplanes) {
-            for (Airplane a : activeAirplanes)
-                a.restoreOriginalPosition();
-            activeAirplanes.clear();
-        }
-
-        model.reset();
+        lastRun = engine.getFlightTimes();
+        engine.reset();
 
         if (sceneForRepaint != null) {
+            sceneForRepaint.stopAnimation();
             sceneForRepaint.repaint();
         }
     }
@@ -91,44 +95,45 @@ public class SimulationController {
 
     /**
      * Tick method called by the timer on each interval.
-     * Updates airplane launches and positions.
+     * The scene repaints on its own frame timer and interpolates between ticks.
      */
     private void tick() {
-        if (!running || paused) return;
-
-        long simTimeInMinutes = simTimer.getSimTimeInMinutes();
-
-        // Airports launch airplanes
-        Collection<Airport> airports = model.getAirports();
-        for (Airport a : airports) {
-            Airplane next = a.sendAirplane(simTimeInMinutes);
-            if (next != null) {
-                next.activate(simTimeInMinutes);
-                synchronized (activeAirplanes) { activeAirplanes.add(next); }
-            }
+        MyTimer timer;
+        synchronized (this) {
+            if (!running || paused) return;
+            timer = simTimer;
         }
+        TrafficSnapshot traffic = engine.step(timer.getSimTimeInMinutes());
 
-        // Update active airplanes
-        synchronized (activeAirplanes) {
-            Iterator<Airplane> it = activeAirplanes.iterator();
-            while (it.hasNext()) {
-                Airplane ap = it.next();
-                ap.updatePosition(simTimeInMinutes);
-                if (!ap.isActive()) it.remove();
-            }
-        }
+        HeatmapLayer hm = heatmap;
+        if (hm != null) hm.accumulate(traffic);
+    }
 
-        if (sceneForRepaint != null) {
-            sceneForRepaint.repaint();
-        }
+    /**
+     * Sets the density overlay fed with every published tick (null = none).
+     * Density only accumulates while a layer is set.
+     */
+    public void setHeatmap(HeatmapLayer heatmap) {
+        this.heatmap = heatmap;
+    }
+
+    /**
+     * Returns the scheduled and actual times of the flights of the current
+     * run, or of the last one if stopped; null if no run was started yet.
+     */
+    public synchronized FlightTimes getFlightTimes() {
+        return running ? engine.getFlightTimes() : lastRun;
+    }
+
+    /** Returns the traffic published by the last tick. */
+    public TrafficSnapshot getTrafficSnapshot() {
+        return engine.getTrafficSnapshot();
     }
 
     /**
-     * Returns a snapshot of active airplanes for rendering.
+     * Returns a snapshot of active airplanes.
      */
     public List<Airplane> getActiveAirplanesSnapshot() {
-        synchronized (activeAirplanes) {
-            return new ArrayList<>(activeAirplanes);
-        }
+        return engine.getActiveAirplanesSnapshot();
     }
 }
@@ -0,0 +1,225 @@
+package gui.simulation;
+
+import gui.models.SimulationModel;
+import gui.models.Airplane;
+import gui.models.FlightTimes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Core simulation step, independent of timers and windows.
+ * Each step launches due airplanes, advances active ones and publishes a
+ * TrafficSnapshot. The actual departure and arrival of every flight are
+ * recorded in a FlightTimes. Driven by SimulationController in the UI and directly
+ * (as fast as possible) by headless tools.
+ */
+public class SimulationEngine {
+
+    /**
+     * Told of every departure and landing, on the simulation thread. Flight
+     * ids index getScheduledFlights(); a flight removed from the model while
+     * airborne lands with id -1.
+     */
+    public interface FlightListener {
+        void departed(int flightId, Airplane flight, long simTimeInMinutes);
+        /** Called in the step that finds the flight arrived. */
+        void landed(int flightId, Airplane flight, long simTimeInMinutes);
+    }
+
+    private final SimulationModel model;
+    private final long tickNanos;
+    private final List<Airplane> activeAirplanes = new ArrayList<>();
+    private int[] activeIds = new int[64]; // schedule flight ids, parallel to activeAirplanes
+    private DepartureSchedule schedule;
+    private FlightTimes times;             // actual times of the schedule's flights
+    private FlightListener listener;
+
+    // Last published traffic picture, read by renderers
+    private volatile TrafficSnapshot traffic = TrafficSnapshot.EMPTY;
+
+    /**
+     * @param model     simulation model
+     * @param tickNanos nominal wall-clock length of one step, used for render interpolation
+     */
+    public SimulationEngine(SimulationModel model, long tickNanos) {
+        this.model = model;
+        this.tickNanos = tickNanos;
+    }
+
+    /**
+     * Advances the simulation to the given time.
+     * Updates airplane launches and positions, then publishes a TrafficSnapshot.
+     *
+     * @return the published snapshot
+     */
+    public synchronized TrafficSnapshot step(long simTimeInMinutes) {
+        return advance(simTimeInMinutes, true);
+    }
+
+    /**
+     * Advances the simulation like step(), without capturing a
+     * TrafficSnapshot; for headless runs that draw nothing.
+     */
+    public synchronized void advance(long simTimeInMinutes) {
+        advance(simTimeInMinutes, false);
+    }
+
+    private TrafficSnapshot advance(long simTimeInMinutes, boolean publish) {
+        // Pick up flights registered while running
+        SimulationModel.Snapshot snap = model.getSnapshot();
+        if (schedule == null) {
+            compile(snap);
+        } else if (schedule.getVersion() != snap.getVersion()) {
+            List<Airplane> before = schedule.getFlights();
+            if (snap.getRewriteVersion() <= schedule.getVersion()) {
+                // flights were only appended (e.g. by a feed): ids stay, merge the new ones
+                schedule.append(snap);
+                times.append(schedule.getFlights(), before.size());
+            } else {
+                schedule = schedule.recompile(snap);
+                times = times.carryOver(before, schedule.getFlights());
+                renumberActive();
+            }
+        }
+
+        // Airports launch airplanes
+        DepartureSchedule ds = schedule;
+        FlightListener l = listener;
+        for (int slot = 0, n = ds.getAirportCount(); slot < n; slot++) {
+            for (int id; (id = ds.dispatch(slot, simTimeInMinutes)) >= 0; ) {
+                // took off at its due time within the step, not at the step's end
+                long takeOff = ds.getLastTakeOff(slot);
+                Airplane next = ds.getFlight(id);
+                next.activate(takeOff);
+                times.departed(id, takeOff);
+                synchronized (activeAirplanes) {
+                    int k = activeAirplanes.size();
+                    if (k == activeIds.length) activeIds = Arrays.copyOf(activeIds, k * 2);
+                    activeIds[k] = id;
+                    activeAirplanes.add(next);
+                }
+                if (l != null) l.departed(id, next, takeOff);
+            }
+        }
+
+        // Update active airplanes; ones that landed this step are still
+        // published once so the renderer can finish their last leg
+        TrafficSnapshot published = null;
+        synchronized (activeAirplanes) {
+            for (Airplane ap : activeAirplanes) {
+                ap.updatePosition(simTimeInMinutes);
+            }
+            if (publish) published = TrafficSnapshot.capture(activeAirplanes, simTimeInMinutes, tickNanos);
+            int n = activeAirplanes.size(), kept = 0;
+            for (int i = 0; i < n; i++) {
+                Airplane ap = activeAirplanes.get(i);
+                if (ap.isActive()) {
+                    activeAirplanes.set(kept, ap);
+                    activeIds[kept++] = activeIds[i];
+                    continue;
+                }
+                ap.land(); // drop its runtime state
+                int id = activeIds[i];
+                // flights fly their duration; the step only finds them arrived
+                if (id >= 0) times.arrived(id, times.getDeparted(id) + (long) times.getDuration(id));
+                if (l != null) l.landed(id, ap, simTimeInMinutes);
+            }
+            activeAirplanes.subList(kept, n).clear();
+        }
+        if (publish) traffic = published;
+        return published;
+    }
+
+    // after a recompile: ids of the airborne flights in the new schedule
+    private void renumberActive() {
+        synchronized (activeAirplanes) {
+            if (activeAirplanes.isEmpty()) return;
+            Map<Airplane, Integer> slot = new IdentityHashMap<>();
+            for (int i = 0; i < activeAirplanes.size(); i++) {
+                slot.put(activeAirplanes.get(i), i);
+                activeIds[i] = -1; // unless it is still registered
+            }
+            List<Airplane> flights = schedule.getFlights();
+            for (int id = 0, n = flights.size(); id < n; id++) {
+                Integer i = slot.get(flights.get(id));
+                if (i != null) activeIds[i] = id;
+            }
+        }
+    }
+
+    /**
+     * Sets the listener told of departures and landings (null = none).
+     * Only one listener is kept.
+     */
+    public synchronized void setFlightListener(FlightListener listener) {
+        this.listener = listener;
+    }
+
+    /** True once every scheduled flight has departed and landed. */
+    public synchronized boolean isFinished() {
+        synchronized (activeAirplanes) {
+            return schedule != null && schedule.getRemaining() == 0 && activeAirplanes.isEmpty();
+        }
+    }
+
+    /**
+     * Flights of the current schedule, indexed by the flight ids given to
+     * the FlightListener. Compiles the schedule if no step ran yet.
+     */
+    public synchronized List<Airplane> getScheduledFlights() {
+        if (schedule == null) compile(model.getSnapshot());
+        return schedule.getFlights();
+    }
+
+    /**
+     * Scheduled and actual times of the flights of the current run, indexed
+     * like getScheduledFlights(); a copy, so it can be read on any thread.
+     */
+    public synchronized FlightTimes getFlightTimes() {
+        if (schedule == null) compile(model.getSnapshot());
+        return times.copy();
+    }
+
+    private void compile(SimulationModel.Snapshot snap) {
+        schedule = DepartureSchedule.compile(snap);
+        times = new FlightTimes(schedule.getFlights());
+    }
+
+    /**
+     * Grounds all active airplanes and rewinds the departure schedule.
+     * The schedule is only recompiled if the model changed since it was
+     * built, or it was changed during the run.
+     */
+    public synchronized void reset() {
+        synchronized (activeAirplanes) {
+            for (Airplane a : activeAirplanes)
+                a.restoreOriginalPosition();
+            activeAirplanes.clear();
+        }
+        traffic = TrafficSnapshot.EMPTY;
+
+        SimulationModel.Snapshot snap = model.getSnapshot();
+        if (schedule == null || schedule.getVersion() != snap.getVersion() || !schedule.canRewind()) {
+            compile(snap);
+        } else {
+            schedule.reset();
+            times.reset();
+        }
+    }
+
+    /** Returns the traffic published by the last step. */
+    public TrafficSnapshot getTrafficSnapshot() {
+        return traffic;
+    }
+
+    /** Returns a snapshot of active airplanes. */
+    public List<Airplane> getActiveAirplanesSnapshot() {
+        synchronized (activeAirplanes) {
+            return new ArrayList<>(activeAirplanes);
+        }
+    }
+}
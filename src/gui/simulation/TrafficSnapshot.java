@@ -0,0 +1,95 @@
+package gui.simulation;
+
+import java.util.List;
+
+import gui.models.Airplane;
+import gui.models.FlightState;
+
+/**
+ * Immutable picture of the airborne traffic published by the simulation
+ * after each tick. For every aircraft it keeps the position at the previous
+ * tick and at the current one, so renderers can interpolate between the two
+ * using wall-clock time and draw smoothly between 5 Hz simulation steps.
+ * Positions and directions are world coordinates; each view projects them
+ * when drawing, so a snapshot does not depend on any canvas size.
+ */
+public final class TrafficSnapshot {
+
+    /** Snapshot with no aircraft, used before the first tick and after stop. */
+    public static final TrafficSnapshot EMPTY = new TrafficSnapshot(0, 0L, 0L, 1L);
+
+    private static final FlightState[] STATES = FlightState.values();
+
+    private final long simTimeInMinutes;
+    private final long publishedNanos;
+    private final long tickNanos;
+    private int size; // only written while capturing, before publication
+
+    private final double[] prevX;
+    private final double[] prevY;
+    private final double[] x;
+    private final double[] y;
+    private final double[] dirX;
+    private final double[] dirY;
+    private final byte[] state;
+    private final int[] width;
+
+    private TrafficSnapshot(int capacity, long simTimeInMinutes, long publishedNanos, long tickNanos) {
+        this.simTimeInMinutes = simTimeInMinutes;
+        this.publishedNanos = publishedNanos;
+        this.tickNanos = tickNanos;
+        this.prevX = new double[capacity];
+        this.prevY = new double[capacity];
+        this.x = new double[capacity];
+        this.y = new double[capacity];
+        this.dirX = new double[capacity];
+        this.dirY = new double[capacity];
+        this.state = new byte[capacity];
+        this.width = new int[capacity];
+    }
+
+    /**
+     * Captures the visible airplanes of the list.
+     *
+     * @param airplanes        airplanes updated in the tick (including ones that just landed)
+     * @param simTimeInMinutes simulation time of the tick
+     * @param tickNanos        nominal wall-clock length of one tick
+     */
+    public static TrafficSnapshot capture(List<Airplane> airplanes, long simTimeInMinutes, long tickNanos) {
+        int n = airplanes.size();
+        TrafficSnapshot s = new TrafficSnapshot(n, simTimeInMinutes, System.nanoTime(), Math.max(1L, tickNanos));
+        for (int i = 0; i < n; i++) {
+            Airplane ap = airplanes.get(i);
+            if (!ap.isVisible()) continue;
+            int k = s.size++;
+            s.prevX[k] = ap.getPrevX();
+            s.prevY[k] = ap.getPrevY();
+            s.x[k] = ap.getX();
+            s.y[k] = ap.getY();
+            s.dirX[k] = ap.getDirX();
+            s.dirY[k] = ap.getDirY();
+            s.state[k] = (byte) ap.getState().ordinal();
+            s.width[k] = ap.getWidth();
+        }
+        return s;
+    }
+
+    /**
+     * Returns the interpolation factor for the given wall-clock time:
+     * 0 at publication, rising to 1 one tick later.
+     */
+    public double alphaAt(long nowNanos) {
+        double a = (nowNanos - publishedNanos) / (double) tickNanos;
+        return a < 0 ? 0 : (a > 1 ? 1 : a);
+    }
+
+    public int size() { return size; }
+    public long getSimTimeInMinutes() { return simTimeInMinutes; }
+
+    public double getX(int i, double alpha) { return prevX[i] + (x[i] - prevX[i]) * alpha; }
+    public double getY(int i, double alpha) { return prevY[i] + (y[i] - prevY[i]) * alpha; }
+    public double getDirX(int i) { return dirX[i]; }
+    public double getDirY(int i) { return dirY[i]; }
+    public FlightState getState(int i) { return STATES[state[i]]; }
+    public int getWidth(int i) { return width[i]; }
+}
@@ -0,0 +1,201 @@
+package gui.simulation;
+
+import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Lightweight list view that paints only the rows currently in view.
+ * Holds a reference to the item list and an int index of the rows passing
+ * the filter; no component is created per row, so scrolling and painting
+ * cost depends on the viewport height, not on the number of items.
+ * Must be used from the AWT event thread.
+ *
+ * @param <T> item type
+ */
+public class VirtualListView<T> extends Panel {
+    private static final long serialVersionUID = 1L;
+
+    private static final int CHECK_SIZE = 10;
+
+    private final Function<T, String> text;
+    private final Predicate<T> checked;     // null = no check box column
+    private Consumer<T> onRowClicked;
+
+    private List<T> items = List.of();
+    private Predicate<T> filter;
+    private int[] rows = new int[0];        // indices into items that pass the filter
+    private int rowCount = 0;
+
+    private final Scrollbar scrollbar = new Scrollbar(Scrollbar.VERTICAL);
+    private final Canvas body = new Canvas() {
+        @Override
+        public void paint(Graphics g) {
+            paintRows(g);
+        }
+
+        @Override
+        public void update(Graphics g) {
+            paintBuffered(g);
+        }
+    };
+    private Image backBuffer;
+
+    /**
+     * @param text    row text for an item
+     * @param checked check box state for an item, or null for plain rows
+     */
+    public VirtualListView(Function<T, String> text, Predicate<T> checked) {
+        super(new BorderLayout());
+        this.text = text;
+        this.checked = checked;
+
+        add(body, BorderLayout.CENTER);
+        add(scrollbar, BorderLayout.EAST);
+        body.setBackground(Color.WHITE);
+
+        scrollbar.addAdjustmentListener(e -> body.repaint());
+        body.addMouseWheelListener(e -> scrollbar.setValue(scrollbar.getValue() + e.getWheelRotation() * 3));
+        body.addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                updateScrollbar();
+            }
+        });
+        body.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                T item = itemAt(e.getY());
+                if (item != null && onRowClicked != null) onRowClicked.accept(item);
+            }
+        });
+    }
+
+    /** Sets the callback invoked when a row is clicked. */
+    public void setOnRowClicked(Consumer<T> onRowClicked) {
+        this.onRowClicked = onRowClicked;
+    }
+
+    /** Replaces the backing items and re-applies the filter. The list must not be modified afterwards. */
+    public void setItems(List<T> items) {
+        this.items = (items != null) ? items : List.of();
+        refilter();
+    }
+
+    /**
+     * Replaces the backing items with a list that starts with the current items,
+     * filtering only the appended tail.
+     */
+    public void appendItems(List<T> grown) {
+        int from = items.size();
+        if (grown == null || grown.size() < from) {
+            setItems(grown);
+            return;
+        }
+        items = grown;
+        int n = grown.size();
+        if (rows.length < rowCount + n - from) rows = Arrays.copyOf(rows, Math.max(rowCount + n - from, rows.length * 2));
+        for (int i = from; i < n; i++) {
+            if (filter == null || filter.test(grown.get(i))) rows[rowCount++] = i;
+        }
+        updateScrollbar();
+        body.repaint();
+    }
+
+    /** Sets the row filter (null = show all) and re-applies it. */
+    public void setFilter(Predicate<T> filter) {
+        this.filter = filter;
+        refilter();
+    }
+
+    /** Number of rows passing the filter. */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    private void refilter() {
+        int n = items.size();
+        if (rows.length < n) rows = new int[Math.max(n, rows.length * 2)];
+        int k = 0;
+        for (int i = 0; i < n; i++) {
+            if (filter == null || filter.test(items.get(i))) rows[k++] = i;
+        }
+        rowCount = k;
+        updateScrollbar();
+        body.repaint();
+    }
+
+    private int rowHeight() {
+        FontMetrics fm = body.getFontMetrics(body.getFont() != null ? body.getFont() : getFont());
+        return (fm != null) ? fm.getHeight() + 2 : 16;
+    }
+
+    private int visibleRows() {
+        return Math.max(1, body.getHeight() / rowHeight());
+    }
+
+    private void updateScrollbar() {
+        int page = visibleRows();
+        int value = Math.min(scrollbar.getValue(), Math.max(0, rowCount - page));
+        scrollbar.setValues(value, page, 0, Math.max(rowCount, page));
+        scrollbar.setBlockIncrement(page);
+    }
+
+    private T itemAt(int y) {
+        int row = scrollbar.getValue() + y / rowHeight();
+        return (row >= 0 && row < rowCount) ? items.get(rows[row]) : null;
+    }
+
+    private void paintBuffered(Graphics g) {
+        int w = body.getWidth();
+        int h = body.getHeight();
+        if (w <= 0 || h <= 0) return;
+        if (backBuffer == null || backBuffer.getWidth(null) != w || backBuffer.getHeight(null) != h) {
+            backBuffer = body.createImage(w, h);
+        }
+        Graphics bg = backBuffer.getGraphics();
+        try {
+            bg.setColor(body.getBackground());
+            bg.fillRect(0, 0, w, h);
+            bg.setFont(body.getFont());
+            paintRows(bg);
+        } finally {
+            bg.dispose();
+        }
+        g.drawImage(backBuffer, 0, 0, null);
+    }
+
+    private void paintRows(Graphics g) {
+        int rh = rowHeight();
+        int ascent = g.getFontMetrics().getAscent();
+        int first = scrollbar.getValue();
+        int last = Math.min(rowCount, first + body.getHeight() / rh + 1);
+        int textX = (checked != null) ? CHECK_SIZE + 8 : 4;
+
+        g.setColor(Color.BLACK);
+        for (int r = first, y = 0; r < last; r++, y += rh) {
+            T item = items.get(rows[r]);
+            if (checked != null) {
+                int cy = y + (rh - CHECK_SIZE) / 2;
+                g.drawRect(4, cy, CHECK_SIZE, CHECK_SIZE);
+                if (checked.test(item)) {
+                    g.drawLine(6, cy + CHECK_SIZE / 2, 8, cy + CHECK_SIZE - 2);
+                    g.drawLine(8, cy + CHECK_SIZE - 2, CHECK_SIZE + 2, cy + 2);
+                }
+            }
+            g.drawString(text.apply(item), textX, y + 1 + ascent);
+        }
+    }
+
+    /** Repaints the visible rows (e.g., after an item's check state changed). */
+    public void refresh() {
+        body.repaint();
+    }
+}